@@ -0,0 +1,107 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import es.iesjuanbosco.roberto.ReservasAulas.config.JacksonConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.AulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ServicioSaturadoException;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.AulaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceContrasenas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pico de logins frente a lecturas del catálogo en la misma máquina: 8 hilos comprobando contraseñas con BCrypt y
+ * 2 hilos sirviendo GET /aulas (mapeo + JSON). Se compara BCrypt en los propios hilos de petición (sinLimite) con
+ * BCrypt en el ejecutor acotado de {@link ServiceContrasenas} (conEjecutor).
+ * <p>
+ * En modo SampleTime JMH da, por grupo, el throughput y los percentiles de cada método: lo que interesa es el p99 de
+ * catalogo* (latencia de las lecturas bajo contención) y cuántos login* se completan. En conEjecutor los logins que no
+ * caben en la cola se rechazan (503 en la API) y cuentan como operaciones muy rápidas.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContrasenasBenchmark {
+
+    @Param({"10"})
+    private int coste;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+    private ServiceContrasenas serviceContrasenas;
+    private ObjectWriter escritor;
+    private List<Aula> aulas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        encoder = new BCryptPasswordEncoder(coste);
+        hash = encoder.encode("contraseña-de-prueba");
+        // Mismos valores por defecto que en application.properties
+        serviceContrasenas = new ServiceContrasenas(0, 64, ForkJoinPool.commonPool());
+        escritor = new JacksonConfig().objectMapper().writerFor(AulaDTO[].class);
+        aulas = DatosBenchmark.aulas();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        serviceContrasenas.cerrar();
+    }
+
+    @Benchmark
+    @Group("sinLimite")
+    @GroupThreads(8)
+    public boolean loginSinLimite() {
+        return encoder.matches("contraseña-de-prueba", hash);
+    }
+
+    @Benchmark
+    @Group("sinLimite")
+    @GroupThreads(2)
+    public byte[] catalogoSinLimite() throws Exception {
+        return leerCatalogo();
+    }
+
+    @Benchmark
+    @Group("conEjecutor")
+    @GroupThreads(8)
+    public boolean loginConEjecutor() {
+        try {
+            return serviceContrasenas.ejecutar(() -> encoder.matches("contraseña-de-prueba", hash)).join();
+        } catch (ServicioSaturadoException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("conEjecutor")
+    @GroupThreads(2)
+    public byte[] catalogoConEjecutor() throws Exception {
+        return leerCatalogo();
+    }
+
+    private byte[] leerCatalogo() throws Exception {
+        return escritor.writeValueAsBytes(aulas.stream().map(AulaMapper::toDto).toArray(AulaDTO[]::new));
+    }
+}
@@ -0,0 +1,55 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiadorPropiedades;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Copia de propiedades no nulas que hacen ServiceAula.actualizar y ServiceReserva.actualizar
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CopiadorPropiedadesBenchmark {
+
+    private final CopiadorPropiedades<Aula> copiadorAula = CopiadorPropiedades.para(Aula.class);
+    private final CopiadorPropiedades<Reserva> copiadorReserva = CopiadorPropiedades.para(Reserva.class);
+
+    private Aula aulaOrigen;
+    private Reserva reservaOrigen;
+
+    @Setup
+    public void preparar() {
+        aulaOrigen = Aula.builder().nombre("Aula 204").capacidad(32).build();
+        reservaOrigen = DatosBenchmark.reservas(1).get(0);
+        reservaOrigen.setId(null);
+    }
+
+    @Benchmark
+    public Aula copiarAula() {
+        Aula destino = Aula.builder().id(7L).nombre("Aula 104").capacidad(25).esOrdenadores(true).build();
+        copiadorAula.copiarNoNulos(destino, aulaOrigen);
+        return destino;
+    }
+
+    @Benchmark
+    public Reserva copiarReserva() {
+        Reserva destino = new Reserva();
+        destino.setId(42L);
+        copiadorReserva.copiarNoNulos(destino, reservaOrigen);
+        return destino;
+    }
+}
@@ -0,0 +1,76 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Datos con el tamaño de un centro real: 40 aulas, 6 franjas de 55 minutos por día lectivo y
+// un curso de ~180 días con reservas
+final class DatosBenchmark {
+
+    static final int AULAS = 40;
+    static final int DIAS_LECTIVOS = 5;
+    static final int FRANJAS_POR_DIA = 6;
+    static final int DIAS_CURSO = 180;
+    static final int SEMANAS_CURSO = DIAS_CURSO / DIAS_LECTIVOS;
+
+    private DatosBenchmark() {
+    }
+
+    static List<Aula> aulas() {
+        List<Aula> aulas = new ArrayList<>();
+        for (long id = 1; id <= AULAS; id++) {
+            aulas.add(Aula.builder().id(id).nombre("Aula " + (100 + id))
+                    .capacidad(20 + (int) (id % 5) * 5).esOrdenadores(id % 3 == 0).build());
+        }
+        return aulas;
+    }
+
+    // Las franjas de la semana, de lunes a viernes
+    static List<Horario> horarios() {
+        List<Horario> horarios = new ArrayList<>();
+        long id = 1;
+        for (int d = 0; d < DIAS_LECTIVOS; d++) {
+            DiaSemana dia = DiaSemana.values()[d];
+            LocalTime inicio = LocalTime.of(8, 30);
+            for (int i = 0; i < FRANJAS_POR_DIA; i++) {
+                horarios.add(Horario.builder().id(id++).diaSemana(dia)
+                        .horaInicio(inicio).horaFin(inicio.plusMinutes(55)).build());
+                inicio = inicio.plusMinutes(i == 2 ? 85 : 55); // recreo tras la tercera hora
+            }
+        }
+        return horarios;
+    }
+
+    static List<Reserva> reservas(int cantidad) {
+        List<Aula> aulas = aulas();
+        List<Horario> horarios = horarios();
+        LocalDate inicio = LocalDate.of(2025, 9, 8);
+
+        List<Reserva> reservas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setId((long) (i % 60) + 1);
+            usuario.setEmail("profesor" + (i % 60) + "@iesjuanbosco.es");
+
+            reservas.add(Reserva.builder()
+                    .id((long) i + 1)
+                    .fecha(inicio.plusDays(i % DIAS_CURSO))
+                    .motivo("Clase de Programación, grupo " + (i % 12))
+                    .asistentes(15 + i % 15)
+                    .fechaCreacion(inicio.minusDays(7))
+                    .aula(aulas.get(i % aulas.size()))
+                    .horario(horarios.get(i % horarios.size()))
+                    .usuario(usuario)
+                    .build());
+        }
+        return reservas;
+    }
+}
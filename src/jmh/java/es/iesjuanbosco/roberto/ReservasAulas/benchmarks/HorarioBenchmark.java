@@ -0,0 +1,49 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Horario.seSolapaCon contra todas las franjas de la semana, como al validar una reserva
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HorarioBenchmark {
+
+    private List<Horario> horarios;
+    private Horario nuevo;
+
+    @Setup
+    public void preparar() {
+        horarios = DatosBenchmark.horarios();
+        nuevo = Horario.builder().id(999L).diaSemana(DiaSemana.MIERCOLES)
+                .horaInicio(LocalTime.of(10, 0)).horaFin(LocalTime.of(11, 0)).build();
+    }
+
+    @Benchmark
+    public int solapamientosSemana() {
+        int solapados = 0;
+        for (Horario horario : horarios) {
+            if (nuevo.seSolapaCon(horario)) {
+                solapados++;
+            }
+        }
+        return solapados;
+    }
+}
@@ -0,0 +1,106 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import es.iesjuanbosco.roberto.ReservasAulas.services.IndiceOcupacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Comprobación de solapamiento de cada alta (antes el bucle de ServiceReserva.validarReserva, ahora
+// IndiceOcupacion.ocupar) con el índice cargado con un curso completo: 40 aulas x 180 días
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndiceOcupacionBenchmark {
+
+    private IndiceOcupacion indice;
+    private List<Horario> horarios;
+    private LocalDate primerLunes;
+    private final AtomicLong ids = new AtomicLong(1_000_000);
+
+    @Setup
+    public void preparar() {
+        indice = new IndiceOcupacion(null);
+        horarios = DatosBenchmark.horarios();
+        primerLunes = LocalDate.of(2025, 9, 8).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+        // Todas las franjas ocupadas salvo la última de cada día
+        long id = 1;
+        for (int semana = 0; semana < DatosBenchmark.SEMANAS_CURSO; semana++) {
+            for (Horario horario : horarios) {
+                if (esUltimaFranja(horario)) continue;
+                LocalDate fecha = fecha(semana, horario);
+                for (long aula = 1; aula <= DatosBenchmark.AULAS; aula++) {
+                    Reserva reserva = Reserva.builder().id(id++).build();
+                    indice.confirmar(indice.ocupar(aula, fecha, horario, null), reserva);
+                }
+            }
+        }
+    }
+
+    // Alta en un hueco libre y baja inmediata para dejar el índice como estaba
+    @Benchmark
+    public Long ocuparHuecoLibre() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Horario horario = ultimaFranja(aleatorio.nextInt(DatosBenchmark.DIAS_LECTIVOS));
+        long aula = 1 + aleatorio.nextInt(DatosBenchmark.AULAS);
+
+        Reserva reserva = Reserva.builder().id(ids.incrementAndGet()).build();
+        indice.confirmar(indice.ocupar(aula, fecha(aleatorio.nextInt(DatosBenchmark.SEMANAS_CURSO), horario), horario, null), reserva);
+        indice.quitar(reserva.getId());
+        return reserva.getId();
+    }
+
+    @Benchmark
+    public boolean rechazarHuecoOcupado() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        Horario horario = horarios.get(aleatorio.nextInt(DatosBenchmark.FRANJAS_POR_DIA - 1));
+        long aula = 1 + aleatorio.nextInt(DatosBenchmark.AULAS);
+        try {
+            indice.ocupar(aula, fecha(aleatorio.nextInt(DatosBenchmark.SEMANAS_CURSO), horario), horario, null);
+            return false;
+        } catch (ConflictoReservaException e) {
+            return true;
+        }
+    }
+
+    // Varios profesores reservando a la vez en aulas distintas
+    @Benchmark
+    @Threads(4)
+    public Long ocuparHuecoLibreConcurrente() {
+        return ocuparHuecoLibre();
+    }
+
+    private Horario ultimaFranja(int dia) {
+        return horarios.get(dia * DatosBenchmark.FRANJAS_POR_DIA + DatosBenchmark.FRANJAS_POR_DIA - 1);
+    }
+
+    private static boolean esUltimaFranja(Horario horario) {
+        return horario.getId() % DatosBenchmark.FRANJAS_POR_DIA == 0;
+    }
+
+    private LocalDate fecha(int semana, Horario horario) {
+        return primerLunes.plusWeeks(semana).plusDays(horario.getDiaSemana().ordinal());
+    }
+}
@@ -0,0 +1,48 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import es.iesjuanbosco.roberto.ReservasAulas.config.JacksonConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.PaginaReservasDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Serialización de una página de ReservaDTO con el ObjectMapper de JacksonConfig (formatos de fecha propios)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonReservaBenchmark {
+
+    @Param({"50", "200"})
+    private int reservas;
+
+    private ObjectWriter escritor;
+    private PaginaReservasDTO pagina;
+
+    @Setup
+    public void preparar() {
+        escritor = new JacksonConfig().objectMapper().writerFor(PaginaReservasDTO.class);
+        pagina = new PaginaReservasDTO(
+                DatosBenchmark.reservas(reservas).stream().map(ReservaMapper::toDto).toList(),
+                "MjAyNS0wOS0wOCwxMjM");
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws Exception {
+        return escritor.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,85 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo hasta la primera petición: arranca la API con el comando indicado, mide cuánto tarda en responder a la URL
+ * (cualquier código HTTP vale: la petición ya ha atravesado Tomcat, la seguridad y los controladores) y la para.
+ * Se repite varias veces y se muestra la mediana, para comparar el arranque normal con el de AOT + CDS (ver README).
+ * <pre>
+ * mvn -P jmh test-compile exec:exec@arranque -Darranque.args="http://localhost:8080/aulas 5 -- java -jar app.jar"
+ * </pre>
+ */
+public class MedicionArranque {
+
+    private static final Duration LIMITE = Duration.ofMinutes(3);
+
+    public static void main(String[] args) throws Exception {
+        int separador = Arrays.asList(args).indexOf("--");
+        if (separador != 2 || args.length < 4) {
+            System.err.println("Uso: MedicionArranque <url> <repeticiones> -- <comando para arrancar la API...>");
+            System.exit(2);
+        }
+        URI url = URI.create(args[0]);
+        int repeticiones = Integer.parseInt(args[1]);
+        List<String> comando = List.of(Arrays.copyOfRange(args, 3, args.length));
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        List<Long> tiempos = new ArrayList<>();
+        for (int i = 1; i <= repeticiones; i++) {
+            long milisegundos = medir(http, url, comando);
+            tiempos.add(milisegundos);
+            System.out.printf("Arranque %d: %d ms%n", i, milisegundos);
+        }
+
+        List<Long> ordenados = tiempos.stream().sorted().toList();
+        System.out.printf("Primera respuesta: mediana %d ms, min %d ms, max %d ms (%d arranques)%n",
+                ordenados.get(ordenados.size() / 2), ordenados.get(0), ordenados.get(ordenados.size() - 1),
+                ordenados.size());
+    }
+
+    private static long medir(HttpClient http, URI url, List<String> comando) throws Exception {
+        long inicio = System.nanoTime();
+        Process api = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File("target/medicion-arranque.log")))
+                .start();
+        try {
+            long limite = inicio + LIMITE.toNanos();
+            while (System.nanoTime() < limite) {
+                if (!api.isAlive()) {
+                    throw new IllegalStateException("La API terminó al arrancar (código " + api.exitValue()
+                            + "), ver target/medicion-arranque.log");
+                }
+                try {
+                    http.send(HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(5)).GET().build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                } catch (IOException e) {
+                    // Todavía no escucha en el puerto
+                    Thread.sleep(20);
+                }
+            }
+            throw new IllegalStateException("La API no respondió en " + LIMITE.toSeconds() + " s");
+        } finally {
+            api.destroy();
+            if (!api.waitFor(30, TimeUnit.SECONDS)) {
+                api.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
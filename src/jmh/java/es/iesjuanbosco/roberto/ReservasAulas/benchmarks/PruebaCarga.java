@@ -0,0 +1,173 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga HTTP contra una API ya arrancada, para comparar el modo de hilos de plataforma con el perfil
+ * {@code virtual} (ver README). Cada cliente simulado repite peticiones sin pausa durante el tiempo indicado y se
+ * mide la latencia de cada una; al final se muestran peticiones por segundo, percentiles y códigos de respuesta.
+ * <p>
+ * Escenarios: {@code listado} (GET /reservas con el primer bloque de la paginación) y {@code reserva}
+ * (POST /reservas en un aula, horario y fecha al azar; los 409 por solapamiento cuentan como respuestas válidas).
+ * <pre>
+ * mvn -P jmh test-compile exec:exec@carga -Dcarga.args="http://localhost:8080 listado 400 30"
+ * </pre>
+ */
+public class PruebaCarga {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        String escenario = args.length > 1 ? args[1] : "listado";
+        int clientes = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int segundos = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String token = obtenerToken(http, base);
+        List<Long> aulas = ids(http, base, "/aulas", token);
+        List<Long> horarios = ids(http, base, "/horarios", token);
+
+        System.out.printf("Escenario %s con %d clientes durante %d s contra %s%n", escenario, clientes, segundos, base);
+
+        // Un calentamiento corto para que el JIT y los pools de la API no cuenten en la medida
+        ejecutar(http, base, escenario, token, aulas, horarios, clientes, Math.min(5, segundos), new Resultado());
+
+        Resultado resultado = new Resultado();
+        ejecutar(http, base, escenario, token, aulas, horarios, clientes, segundos, resultado);
+        resultado.mostrar(segundos);
+    }
+
+    private static void ejecutar(HttpClient http, String base, String escenario, String token, List<Long> aulas,
+                                 List<Long> horarios, int clientes, int segundos, Resultado resultado)
+            throws Exception {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+
+        List<Future<long[]>> latenciasPorCliente = new ArrayList<>(clientes);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                latenciasPorCliente.add(ejecutor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < fin) {
+                        HttpRequest peticion = escenario.equals("reserva")
+                                ? reservaAlAzar(base, token, aulas, horarios)
+                                : HttpRequest.newBuilder(URI.create(base + "/reservas?limite=50"))
+                                        .header("Authorization", "Bearer " + token).GET().build();
+                        long inicio = System.nanoTime();
+                        int estado;
+                        try {
+                            estado = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            estado = -1;
+                        }
+                        if (n == latencias.length) latencias = Arrays.copyOf(latencias, n * 2);
+                        latencias[n++] = (System.nanoTime() - inicio) / 1000;
+                        resultado.estados.computeIfAbsent(estado, c -> new LongAdder()).increment();
+                    }
+                    return Arrays.copyOf(latencias, n);
+                }));
+            }
+        }
+        for (Future<long[]> latencias : latenciasPorCliente) {
+            resultado.latencias.add(latencias.get());
+        }
+    }
+
+    private static HttpRequest reservaAlAzar(String base, String token, List<Long> aulas, List<Long> horarios) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        Map<String, Object> cuerpo = Map.of(
+                "aulaId", aulas.get(azar.nextInt(aulas.size())),
+                "horarioId", horarios.get(azar.nextInt(horarios.size())),
+                "fecha", LocalDate.now().plusDays(1 + azar.nextInt(365)).format(FORMATO_FECHA),
+                "motivo", "Prueba de carga",
+                "asistentes", 1);
+        try {
+            return HttpRequest.newBuilder(URI.create(base + "/reservas"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(cuerpo)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Registra (si no existe) y autentica un usuario propio para la prueba
+    private static String obtenerToken(HttpClient http, String base) throws Exception {
+        String credenciales = JSON.writeValueAsString(
+                Map.of("email", "carga@iesjuanbosco.es", "password", "prueba-de-carga"));
+        http.send(HttpRequest.newBuilder(URI.create(base + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credenciales)).build(), HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<String> login = http.send(HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credenciales)).build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo iniciar sesión: " + login.statusCode() + " " + login.body());
+        }
+        return JSON.readTree(login.body()).get("token").asText();
+    }
+
+    private static List<Long> ids(HttpClient http, String base, String ruta, String token) throws Exception {
+        HttpResponse<String> respuesta = http.send(HttpRequest.newBuilder(URI.create(base + ruta))
+                .header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode nodo : JSON.readTree(respuesta.body())) {
+            ids.add(nodo.get("id").asLong());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No hay datos en " + ruta + " para la prueba");
+        }
+        return ids;
+    }
+
+    // Latencias en microsegundos de cada cliente y recuento por código de respuesta (-1 = error de red)
+    private static final class Resultado {
+
+        private final List<long[]> latencias = new ArrayList<>();
+        private final Map<Integer, LongAdder> estados = new ConcurrentHashMap<>();
+
+        void mostrar(int segundos) {
+            long[] todas = latencias.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            if (todas.length == 0) {
+                System.out.println("Ninguna petición completada");
+                return;
+            }
+            System.out.printf("Peticiones: %d (%.1f/s)%n", todas.length, todas.length / (double) segundos);
+            System.out.printf("Latencia (ms): p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                    percentil(todas, 0.50), percentil(todas, 0.90), percentil(todas, 0.99),
+                    todas[todas.length - 1] / 1000.0);
+            System.out.println("Respuestas: " + estados);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package es.iesjuanbosco.roberto.ReservasAulas.benchmarks;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ReservaMapper.toDto para una página por defecto (50), una página máxima (200) y un lote grande (1000)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaMapperBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int reservas;
+
+    private List<Reserva> datos;
+
+    @Setup
+    public void preparar() {
+        datos = DatosBenchmark.reservas(reservas);
+    }
+
+    @Benchmark
+    public List<ReservaDTO> toDto() {
+        List<ReservaDTO> dtos = new ArrayList<>(datos.size());
+        for (Reserva reserva : datos) {
+            dtos.add(ReservaMapper.toDto(reserva));
+        }
+        return dtos;
+    }
+}
@@ -2,8 +2,11 @@ package es.iesjuanbosco.roberto.ReservasAulas;
 //https://iesjuanbosco.fls.jetbrains.com
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// Scheduling: archivo nocturno de reservas pasadas (ArchivoReservas)
 @SpringBootApplication
+@EnableScheduling
 public class ReservasAulasApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,122 @@
+package es.iesjuanbosco.roberto.ReservasAulas.beans;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copia las propiedades no nulas de un objeto sobre otro del mismo tipo (actualizaciones parciales).
+ * <p>
+ * Sustituye a {@code CopiarClase} (commons-beanutils) con la misma semántica: se copian todas las propiedades con
+ * getter y setter públicos cuyo valor en el origen no es null. La introspección se hace una sola vez por tipo y cada
+ * getter/setter se convierte en una lambda con {@link LambdaMetafactory}, así que copiar es una llamada directa por
+ * propiedad, sin reflexión ni conversiones.
+ */
+public final class CopiadorPropiedades<T> {
+
+    private static final ClassValue<CopiadorPropiedades<?>> COPIADORES = new ClassValue<>() {
+        @Override
+        protected CopiadorPropiedades<?> computeValue(Class<?> tipo) {
+            return new CopiadorPropiedades<>(tipo);
+        }
+    };
+
+    private final Class<T> tipo;
+    private final List<Propiedad> propiedades;
+
+    private record Propiedad(String nombre, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {}
+
+    @SuppressWarnings("unchecked")
+    public static <T> CopiadorPropiedades<T> para(Class<T> tipo) {
+        return (CopiadorPropiedades<T>) COPIADORES.get(tipo);
+    }
+
+    private CopiadorPropiedades(Class<T> tipo) {
+        this.tipo = tipo;
+        this.propiedades = List.copyOf(introspeccionar(tipo));
+    }
+
+    public void copiarNoNulos(T destino, T origen) {
+        for (Propiedad propiedad : propiedades) {
+            Object valor = propiedad.getter().apply(origen);
+            if (valor != null) { // sólo copia si no es null
+                propiedad.setter().accept(destino, valor);
+            }
+        }
+    }
+
+    public List<String> nombresPropiedades() {
+        return propiedades.stream().map(Propiedad::nombre).toList();
+    }
+
+    @Override
+    public String toString() {
+        return "CopiadorPropiedades[" + tipo.getSimpleName() + nombresPropiedades() + "]";
+    }
+
+    private static List<Propiedad> introspeccionar(Class<?> tipo) {
+        BeanInfo info;
+        try {
+            info = Introspector.getBeanInfo(tipo, Object.class);
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("No se pueden leer las propiedades de " + tipo.getName(), e);
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Propiedad> propiedades = new ArrayList<>();
+        for (PropertyDescriptor descriptor : info.getPropertyDescriptors()) {
+            Method lectura = descriptor.getReadMethod();
+            Method escritura = descriptor.getWriteMethod();
+            if (lectura == null || escritura == null) continue;
+
+            try {
+                propiedades.add(new Propiedad(descriptor.getName(),
+                        getter(lookup, tipo, lectura), setter(lookup, tipo, escritura)));
+            } catch (Throwable e) {
+                throw new IllegalStateException(
+                        "No se puede generar el acceso a " + tipo.getName() + "." + descriptor.getName(), e);
+            }
+        }
+        return propiedades;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(MethodHandles.Lookup lookup, Class<?> tipo, Method metodo)
+            throws Throwable {
+        MethodHandle handle = lookup.unreflect(metodo);
+        CallSite sitio = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                MethodType.methodType(envolver(metodo.getReturnType()), tipo));
+        return (Function<Object, Object>) sitio.getTarget().invokeExact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> tipo, Method metodo)
+            throws Throwable {
+        MethodHandle handle = lookup.unreflect(metodo);
+        CallSite sitio = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                MethodType.methodType(void.class, tipo, envolver(metodo.getParameterTypes()[0])));
+        return (BiConsumer<Object, Object>) sitio.getTarget().invokeExact();
+    }
+
+    // Las propiedades primitivas se ven como su clase envoltorio (la lambda hace el boxing/unboxing)
+    private static Class<?> envolver(Class<?> clase) {
+        return clase.isPrimitive() ? MethodType.methodType(clase).wrap().returnType() : clase;
+    }
+}
@@ -0,0 +1,24 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché de lectura del catálogo de aulas y horarios (Caffeine, tamaño y caducidad en application.properties).
+ * Las altas, modificaciones y bajas de ServiceAula y ServiceHorario la invalidan explícitamente.
+ * <p>
+ * Los {@code @Cacheable} no usan {@code sync = true}: con sync la consulta a la base de datos se haría dentro del
+ * compute de Caffeine, que bloquea con synchronized y en el perfil {@code virtual} fijaría el hilo portador.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Aula u horario por id
+    public static final String AULAS = "aulas";
+    public static final String HORARIOS = "horarios";
+
+    // Listados completos y filtrados del catálogo
+    public static final String CATALOGO_AULAS = "catalogoAulas";
+    public static final String CATALOGO_HORARIOS = "catalogoHorarios";
+}
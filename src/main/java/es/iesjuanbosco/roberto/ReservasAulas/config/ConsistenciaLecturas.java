@@ -0,0 +1,44 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Leer tus propias escrituras con una réplica que va con retraso: durante la ventana siguiente a confirmar una
+ * escritura, las lecturas del mismo usuario siguen yendo a la base de datos principal, así que quien acaba de
+ * reservar ve su reserva aunque la réplica aún no la tenga. Las peticiones sin autenticar (registro, login)
+ * comparten una misma entrada.
+ * <p>
+ * La ventana debe ser mayor que el retraso habitual de la réplica. Se guarda en memoria: con varias instancias de
+ * la API solo cubre las peticiones que llegan a la misma instancia.
+ */
+public class ConsistenciaLecturas {
+
+    private static final String ANONIMO = "";
+
+    // Usuario -> escritura reciente; la entrada caduca al acabar la ventana
+    private final Cache<String, Boolean> recientes;
+
+    public ConsistenciaLecturas(Duration ventana) {
+        this.recientes = Caffeine.newBuilder().expireAfterWrite(ventana).build();
+    }
+
+    // Se llama al abrir una transacción de escritura; la ventana empieza cuando se confirma
+    void escrituraIniciada() {
+        String usuario = usuarioActual();
+        TrasConfirmar.ejecutar(() -> recientes.put(usuario, Boolean.TRUE));
+    }
+
+    boolean leerDePrincipal() {
+        return recientes.getIfPresent(usuarioActual()) != null;
+    }
+
+    private static String usuarioActual() {
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacion != null ? autenticacion.getName() : ANONIMO;
+    }
+}
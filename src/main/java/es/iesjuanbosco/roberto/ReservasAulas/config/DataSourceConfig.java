@@ -0,0 +1,64 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de lectura: solo se activa con {@code spring.datasource.replica.url}. Entonces hay dos pools (principal
+ * con {@code spring.datasource.*} y réplica con {@code spring.datasource.replica.*}) y la aplicación usa un
+ * DataSource que envía a la réplica las transacciones {@code @Transactional(readOnly = true)} de los servicios
+ * (ver {@link DataSourceEnrutado}) y todo lo demás a la principal. Sin la propiedad, un único pool como siempre.
+ */
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrincipal(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("principal");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource dataSourceReplica(Environment environment) throws Exception {
+        // Un segundo bean DataSourceProperties haría ambigua la configuración automática de la principal
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("spring.datasource.replica", DataSourceProperties.class)
+                .get();
+        properties.afterPropertiesSet();
+
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ConsistenciaLecturas consistenciaLecturas(@Value("${reservas.replica.ventana-ms:2000}") long ventanaMs) {
+        return new ConsistenciaLecturas(Duration.ofMillis(ventanaMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourcePrincipal") DataSource principal,
+                                 @Qualifier("dataSourceReplica") DataSource replica,
+                                 ConsistenciaLecturas consistencia) {
+        return new LazyConnectionDataSourceProxy(new DataSourceEnrutado(principal, replica, consistencia));
+    }
+}
@@ -0,0 +1,46 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import es.iesjuanbosco.roberto.ReservasAulas.ReservasAulasApplication;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Elige la base de datos de cada conexión según la transacción que la pide. Debe ir detrás de un
+// LazyConnectionDataSourceProxy: el gestor de transacciones pide la conexión antes de marcarla como de solo lectura
+class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    enum Destino { PRINCIPAL, REPLICA }
+
+    // Las transacciones se nombran con la clase y el método que las declara
+    private static final String PAQUETE_APLICACION = ReservasAulasApplication.class.getPackageName() + ".";
+
+    private final ConsistenciaLecturas consistencia;
+
+    DataSourceEnrutado(DataSource principal, DataSource replica, ConsistenciaLecturas consistencia) {
+        this.consistencia = consistencia;
+        setTargetDataSources(Map.of(Destino.PRINCIPAL, principal, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(principal);
+        afterPropertiesSet();
+    }
+
+    // A la réplica solo van las transacciones de solo lectura declaradas en la aplicación. Las que abren por su cuenta
+    // los repositorios de Spring Data (SimpleJpaRepository es readOnly) siguen en la principal: de ellas salen las
+    // cargas de la caché del catálogo, la reconstrucción del índice de ocupación y las lecturas previas a una
+    // escritura, que no deben ver datos atrasados
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Destino.PRINCIPAL;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            consistencia.escrituraIniciada();
+            return Destino.PRINCIPAL;
+        }
+
+        String transaccion = TransactionSynchronizationManager.getCurrentTransactionName();
+        boolean declarada = transaccion != null && transaccion.startsWith(PAQUETE_APLICACION);
+        return declarada && !consistencia.leerDePrincipal() ? Destino.REPLICA : Destino.PRINCIPAL;
+    }
+}
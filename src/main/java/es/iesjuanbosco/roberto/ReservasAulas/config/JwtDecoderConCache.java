@@ -0,0 +1,181 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Decodificador JWT que recuerda los tokens ya verificados hasta su expiración, para no volver a parsear el JSON ni
+ * recalcular la firma HMAC en cada petición del mismo cliente.
+ * <p>
+ * La clave de la caché es el SHA-256 del token completo (cabecera, payload y firma), así que un token alterado nunca
+ * coincide con uno verificado y siempre pasa por el decodificador real. Las entradas caducan en el {@code exp} del
+ * token y se quitan al revocarlo ({@link #revocar}); los tokens revocados se rechazan hasta su expiración.
+ * <p>
+ * La revocación no usa el texto del token sino su identidad ya verificada (el {@code jti}, o los bytes de la firma
+ * si no lo tiene): un mismo token admite varias codificaciones válidas (los bits de relleno del último carácter
+ * base64url no cuentan), y cualquiera de ellas debe quedar revocada. La revocación es local a esta instancia de
+ * la API.
+ * <p>
+ * Como {@link MeterBinder} publica el tiempo de {@link #decode} ({@code jwt.decodificacion}, etiquetado según el
+ * token salga de la caché, se verifique o se rechace) y las métricas de la caché con el nombre {@code tokens}.
+ */
+public class JwtDecoderConCache implements JwtDecoder, MeterBinder {
+
+    private final JwtDecoder delegado;
+    private final Clock reloj;
+
+    // resumen del token -> token verificado
+    private final Cache<String, Jwt> verificados;
+
+    // identidad del token revocado -> expiración del token (después ya no hace falta recordarlo)
+    private final Cache<String, Instant> revocados;
+
+    // Hasta que Spring registra las métricas (bindTo) se mide contra un registro vacío, que no guarda nada
+    private volatile MeterRegistry registro = new CompositeMeterRegistry();
+
+    public JwtDecoderConCache(JwtDecoder delegado, long maxEntradas, Clock reloj, Ticker ticker) {
+        this.delegado = delegado;
+        this.reloj = reloj;
+        this.verificados = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfter(hastaExpiracion(Jwt::getExpiresAt))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.revocados = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfter(hastaExpiracion(Function.identity()))
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Timer.Sample muestra = Timer.start(registro);
+        String origen = "rechazado";
+        try {
+            String clave = resumen(token);
+            Jwt jwt = verificados.getIfPresent(clave);
+            if (jwt != null && reloj.instant().isBefore(jwt.getExpiresAt())) {
+                comprobarNoRevocado(jwt);
+                origen = "cache";
+                return jwt;
+            }
+
+            // Firma, formato y fechas los comprueba el decodificador real; si falla no se guarda nada
+            jwt = delegado.decode(token);
+            comprobarNoRevocado(jwt);
+            if (jwt.getExpiresAt() != null) {
+                verificados.put(clave, jwt);
+            }
+            origen = "verificado";
+            return jwt;
+        } finally {
+            muestra.stop(registro.timer("jwt.decodificacion", "origen", origen));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registro) {
+        this.registro = registro;
+        // Mismas etiquetas que las cachés de Spring: Prometheus no admite un mismo nombre con etiquetas distintas
+        CaffeineCacheMetrics.monitor(registro, verificados, "tokens", "cache.manager", "jwtDecoder", "name", "tokens");
+        Gauge.builder("jwt.revocados", this, JwtDecoderConCache::tokensRevocados)
+                .description("Tokens revocados que aún no han expirado")
+                .register(registro);
+    }
+
+    // Cierre de sesión: el token deja de aceptarse aunque su firma y su exp sigan siendo válidos
+    public void revocar(Jwt jwt) {
+        Instant expiracion = jwt.getExpiresAt() != null ? jwt.getExpiresAt() : reloj.instant().plus(Duration.ofDays(1));
+        revocados.put(identidad(jwt), expiracion);
+        verificados.invalidate(resumen(jwt.getTokenValue()));
+    }
+
+    public CacheStats estadisticas() {
+        return verificados.stats();
+    }
+
+    // Se limpian antes las entradas caducadas para no contarlas
+    public long tokensEnCache() {
+        verificados.cleanUp();
+        return verificados.estimatedSize();
+    }
+
+    public long tokensRevocados() {
+        revocados.cleanUp();
+        return revocados.estimatedSize();
+    }
+
+    // Expulsa cada entrada en el instante que devuelve la función (la exp del token), según el reloj de la API
+    private <V> Expiry<String, V> hastaExpiracion(Function<V, Instant> expiracion) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String clave, V valor, long ahora) {
+                return Math.max(0, Duration.between(reloj.instant(), expiracion.apply(valor)).toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(String clave, V valor, long ahora, long restante) {
+                return expireAfterCreate(clave, valor, ahora);
+            }
+
+            @Override
+            public long expireAfterRead(String clave, V valor, long ahora, long restante) {
+                return restante;
+            }
+        };
+    }
+
+    private void comprobarNoRevocado(Jwt jwt) {
+        if (revocados.getIfPresent(identidad(jwt)) != null) {
+            throw new BadJwtException("El token ha sido revocado");
+        }
+    }
+
+    // El jti (JwtService lo pone siempre) o, si falta, la firma decodificada: igual para todas las codificaciones
+    private static String identidad(Jwt jwt) {
+        if (jwt.getId() != null) {
+            return "jti:" + jwt.getId();
+        }
+        String token = jwt.getTokenValue();
+        byte[] firma = Base64.getUrlDecoder().decode(token.substring(token.lastIndexOf('.') + 1));
+        return "firma:" + resumen(firma);
+    }
+
+    private static String resumen(String token) {
+        return resumen(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String resumen(byte[] bytes) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
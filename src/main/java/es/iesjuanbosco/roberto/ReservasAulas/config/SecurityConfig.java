@@ -1,11 +1,18 @@
 package es.iesjuanbosco.roberto.ReservasAulas.config;
 
+import com.github.benmanes.caffeine.cache.Ticker;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
 import es.iesjuanbosco.roberto.ReservasAulas.services.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -15,11 +22,14 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Clock;
 
 @Configuration
 @EnableWebSecurity
@@ -28,6 +38,17 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     private final JwtService jwtService;
+    private final RepositorioUsuario repositorioUsuario;
+
+    @Value("${seguridad.jwt.cache.max-tokens:10000}")
+    private long maxTokensEnCache = 10_000;
+
+    @Value("${server.port:8080}")
+    private int puertoApi = 8080;
+
+    // -1 (o el mismo que el de la API): sin puerto de gestión aparte, el actuator va en el puerto de la API
+    @Value("${management.server.port:-1}")
+    private int puertoGestion = -1;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -43,6 +64,9 @@ public class SecurityConfig {
                         // Permitir requests OPTIONS (preflight de CORS) sin autenticación
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         
+                        // Cerrar sesión revoca el token de la petición
+                        .requestMatchers(HttpMethod.POST, "/auth/logout").authenticated()
+
                         // Rutas públicas (sin autenticación)
                         .requestMatchers("/auth/**").permitAll()
 
@@ -60,14 +84,34 @@ public class SecurityConfig {
 
                         // RESERVAS - Todos pueden ver y crear, pero solo ADMIN puede eliminar cualquiera
                         // (La lógica de "solo borrar sus propias reservas" la manejamos en el controlador)
+                        .requestMatchers(HttpMethod.GET, "/reservas/exportar").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/reservas/**").hasAnyRole("PROFESOR", "ADMIN")
-                        .requestMatchers(HttpMethod.POST, "/reservas").hasAnyRole("PROFESOR", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/reservas/batch", "/reservas/historico/archivar").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/reservas", "/reservas/recurrente").hasAnyRole("PROFESOR", "ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/reservas/**").hasAnyRole("PROFESOR", "ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/reservas/**").hasAnyRole("PROFESOR", "ADMIN")
 
+                        // DISPONIBILIDAD - Consulta de aulas libres
+                        .requestMatchers(HttpMethod.GET, "/disponibilidad/**").hasAnyRole("PROFESOR", "ADMIN")
+
                         // USUARIOS - Solo ADMIN
                         .requestMatchers("/usuario/**").hasRole("ADMIN")
 
+                        // CACHÉ - Estadísticas del catálogo, solo ADMIN
+                        .requestMatchers("/cache/**").hasRole("ADMIN")
+
+                        // ESTADÍSTICAS - Ocupación de las aulas, solo ADMIN
+                        .requestMatchers("/estadisticas/**").hasRole("ADMIN")
+
+                        // IMPORTACIÓN - Carga masiva desde CSV, solo ADMIN
+                        .requestMatchers("/importacion/**").hasRole("ADMIN")
+
+                        // ACTUATOR - Solo la salud es pública. Las métricas se leen sin token únicamente por el puerto
+                        // de gestión (que solo escucha en la propia máquina); por cualquier otro, solo ADMIN
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(metricasEnPuertoDeGestion(puertoGestion, puertoApi)).permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         // Todo lo demás requiere autenticación
                         .requestMatchers("/", "/index.html", "/static/**", "/frontend/**").permitAll()
                         .anyRequest().authenticated()
@@ -90,28 +134,47 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // GET /actuator/prometheus recibido por el puerto de gestión (nunca coincide si no hay puerto aparte)
+    public static RequestMatcher metricasEnPuertoDeGestion(int puertoGestion, int puertoApi) {
+        boolean puertoAparte = puertoGestion > 0 && puertoGestion != puertoApi;
+        return peticion -> puertoAparte
+                && peticion.getLocalPort() == puertoGestion
+                && HttpMethod.GET.matches(peticion.getMethod())
+                && "/actuator/prometheus".equals(peticion.getRequestURI());
+    }
+
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoderConCache jwtDecoder() {
         // Configura cómo validar los tokens JWT con la clave secreta
-        return NimbusJwtDecoder.withSecretKey(jwtService.getSecretKey()).build();
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(jwtService.getSecretKey()).build();
+
+        // Los tokens ya verificados se reutilizan hasta que expiran (o se revocan al cerrar sesión)
+        return new JwtDecoderConCache(decoder, maxTokensEnCache, Clock.systemUTC(), Ticker.systemTicker());
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter() {
         // Configura cómo extraer los roles del token
         JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        authoritiesConverter.setAuthoritiesClaimName("roles");  // Buscar en claim "roles"
-        authoritiesConverter.setAuthorityPrefix("");             // Sin prefijo adicional
-
-        JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
-        jwtConverter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
-        return jwtConverter;
+        authoritiesConverter.setAuthoritiesClaimName(JwtService.CLAIM_ROLES);  // Buscar en claim "roles"
+        authoritiesConverter.setAuthoritiesClaimDelimiter(",");                // "ROLE_PROFESOR,ROLE_ADMIN"
+        authoritiesConverter.setAuthorityPrefix("");                           // Sin prefijo adicional
+
+        // El principal es el usuario construido con los claims (id, email y roles), sin consultar la base de datos
+        return jwt -> {
+            UsuarioAutenticado deClaims = UsuarioAutenticado.desde(jwt);
+            // Los tokens emitidos antes de incluir el id siguen valiendo hasta que caducan: el id se busca por email
+            UsuarioAutenticado usuario = deClaims.id() != null ? deClaims : repositorioUsuario.findByEmail(jwt.getSubject())
+                    .map(u -> new UsuarioAutenticado(u.getId(), deClaims.email(), deClaims.roles()))
+                    .orElseThrow(() -> new InvalidBearerTokenException("El usuario del token no existe"));
+            return UsernamePasswordAuthenticationToken.authenticated(usuario, jwt, authoritiesConverter.convert(jwt));
+        };
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // BCrypt para cifrar contraseñas en la base de datos
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${seguridad.bcrypt.coste:10}") int coste) {
+        // BCrypt para cifrar contraseñas en la base de datos (coste = log2 de las rondas, 10 por defecto)
+        return new BCryptPasswordEncoder(coste);
     }
 
     @Bean
@@ -0,0 +1,26 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Cambios en memoria (índice, versiones, ventana de lectura) que solo deben verse si la transacción se confirma:
+// un rollback no debe dejar rastro
+public final class TrasConfirmar {
+
+    private TrasConfirmar() {
+    }
+
+    // Dentro de una transacción la acción se aplica al confirmarla; fuera de ella, en el momento
+    public static void ejecutar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -3,17 +3,24 @@ package es.iesjuanbosco.roberto.ReservasAulas.controllers;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.AulaDTO;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.AulaRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.SemanaAulaDTO;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
 import es.iesjuanbosco.roberto.ReservasAulas.mapper.AulaMapper;
 import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
 import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceAula;
+import es.iesjuanbosco.roberto.ReservasAulas.services.VersionesColecciones;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,11 +32,20 @@ import java.util.stream.Collectors;
 public class ControllerAula {
 
     private final ServiceAula serviceAula;
+    private final VersionesColecciones versiones;
 
     @GetMapping
     public ResponseEntity<List<AulaDTO>> getAulas(
             @RequestParam(required = false) Integer capacidad,
-            @RequestParam(required = false) Boolean esOrdenadores) {
+            @RequestParam(required = false) Boolean esOrdenadores,
+            ServletWebRequest peticion) {
+
+        // Si el cliente ya tiene esta versión del catálogo con el mismo filtro se responde 304 sin leer ni serializar
+        String filtro = capacidad != null ? "c" + capacidad : esOrdenadores != null ? "o" + esOrdenadores : "";
+        String etag = versiones.etagAulas(filtro);
+        if (RespuestaCondicional.noModificado(peticion, etag)) {
+            return null;
+        }
 
         List<Aula> aulas;
 
@@ -45,7 +61,7 @@ public class ControllerAula {
                 .map(AulaMapper::toDto)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(aulasDto);
+        return ResponseEntity.ok().cacheControl(RespuestaCondicional.REVALIDAR).eTag(etag).body(aulasDto);
     }
 
     @GetMapping("/{id}")
@@ -102,11 +118,39 @@ public class ControllerAula {
     }
 
     @GetMapping("/{id}/reservas")
-    public ResponseEntity<List<ReservaDTO>> getReservasAula(@PathVariable Long id) {
+    public ResponseEntity<List<ReservaDTO>> getReservasAula(@PathVariable Long id, ServletWebRequest peticion) {
+        String etag = versiones.etagReservasAula(id);
+        if (RespuestaCondicional.noModificado(peticion, etag)) {
+            return null;
+        }
+
         List<Reserva> reservas = serviceAula.obtenerReservasAula(id);
         List<ReservaDTO> reservasDto = reservas.stream()
                 .map(ReservaMapper::toDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(reservasDto);
+        return ResponseEntity.ok().cacheControl(RespuestaCondicional.REVALIDAR).eTag(etag).body(reservasDto);
+    }
+
+    // Cuadrante semanal del aula (horarios x días) con la reserva que ocupa cada hueco. Sin fecha, la semana actual.
+    @GetMapping("/{id}/semana")
+    public ResponseEntity<?> getSemanaAula(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha,
+            ServletWebRequest peticion) {
+
+        LocalDate dia = fecha != null ? fecha : LocalDate.now();
+        String etag = versiones.etagSemanaAula(id, dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+        if (RespuestaCondicional.noModificado(peticion, etag)) {
+            return null;
+        }
+
+        Optional<Aula> aulaOpt = serviceAula.obtenerPorId(id);
+        if (aulaOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("mensaje", "Aula no encontrada con id: " + id));
+        }
+
+        SemanaAulaDTO semana = serviceAula.obtenerSemana(aulaOpt.get(), dia);
+        return ResponseEntity.ok().cacheControl(RespuestaCondicional.REVALIDAR).eTag(etag).body(semana);
     }
-}
\ No newline at end of file
+}
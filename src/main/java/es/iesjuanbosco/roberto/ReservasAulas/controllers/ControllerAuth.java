@@ -1,13 +1,19 @@
 package es.iesjuanbosco.roberto.ReservasAulas.controllers;
 
+import es.iesjuanbosco.roberto.ReservasAulas.config.JwtDecoderConCache;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.CambiarPasswordRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.LoginRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.RegisterRequest;
-import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ServicioSaturadoException;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.UsuarioMapper;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
 import es.iesjuanbosco.roberto.ReservasAulas.services.JwtService;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceContrasenas;
 import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceUsuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,10 +22,13 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/auth")
@@ -31,90 +40,119 @@ public class ControllerAuth {
     private final RepositorioUsuario usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final ServiceUsuario serviceUsuario;
+    private final JwtDecoderConCache jwtDecoder;
+    private final ServiceContrasenas serviceContrasenas;
+    private final MeterRegistry meterRegistry;
 
+    // El hash de BCrypt se calcula en el ejecutor de contraseñas; el hilo de Tomcat queda libre mientras tanto.
+    // auth.login mide cada intento (incluida la espera en la cola del ejecutor) por resultado
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
         try {
-            // Autenticar al usuario con email y password
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.email(), loginRequest.password())
-            );
-
-            // Si las credenciales son correctas, generar token
-            String token = jwtService.generateToken(authentication);
-            return ResponseEntity.ok(Map.of("token", token));
-
-        } catch (BadCredentialsException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", "Credenciales incorrectas"));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Error en el servidor"));
+            return serviceContrasenas.ejecutar(() ->
+                            // Autenticar al usuario con email y password
+                            authenticationManager.authenticate(
+                                    new UsernamePasswordAuthenticationToken(loginRequest.email(), loginRequest.password())))
+                    .<ResponseEntity<?>>thenApply(authentication -> {
+                        // Si las credenciales son correctas, generar token
+                        String token = jwtService.generateToken(authentication);
+                        muestra.stop(meterRegistry.timer("auth.login", "resultado", "ok"));
+                        return ResponseEntity.ok(Map.of("token", token));
+                    })
+                    .exceptionally(e -> {
+                        if (e.getCause() instanceof BadCredentialsException) {
+                            muestra.stop(meterRegistry.timer("auth.login", "resultado", "credenciales_incorrectas"));
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                    .body(Map.of("error", "Credenciales incorrectas"));
+                        }
+                        muestra.stop(meterRegistry.timer("auth.login", "resultado", "error"));
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                .body(Map.of("error", "Error en el servidor"));
+                    });
+        } catch (ServicioSaturadoException e) {
+            muestra.stop(meterRegistry.timer("auth.login", "resultado", "saturado"));
+            throw e;
         }
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
-        try {
-            // Verificar si el email ya existe
-            if (usuarioRepository.findByEmail(registerRequest.email()).isPresent()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(Map.of("error", "El email ya está registrado"));
-            }
-
-            // Crear nuevo usuario
-            Usuario usuario = new Usuario();
-            usuario.setEmail(registerRequest.email());
-            usuario.setPassword(passwordEncoder.encode(registerRequest.password()));  // Cifrar password
-
-            // Asignar rol: si no se proporciona o no es ADMIN, asignar PROFESOR
-            if (registerRequest.role() != null && registerRequest.role().equals("ROLE_ADMIN")) {
-                usuario.setRoles("ROLE_ADMIN");
-            } else {
-                usuario.setRoles("ROLE_PROFESOR");
-            }
-
-            usuario.setEnabled(true);
-
-            usuarioRepository.save(usuario);
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
+        // Verificar si el email ya existe
+        if (usuarioRepository.findByEmail(registerRequest.email()).isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "El email ya está registrado")));
+        }
 
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(Map.of("message", "Usuario registrado correctamente"));
+        // En el ejecutor de contraseñas solo se cifra la password; el usuario se guarda después, fuera de él
+        return serviceContrasenas.<String, ResponseEntity<?>>ejecutarYDespues(
+                        () -> passwordEncoder.encode(registerRequest.password()),  // Cifrar password
+                        hash -> {
+                    // Crear nuevo usuario
+                    Usuario usuario = new Usuario();
+                    usuario.setEmail(registerRequest.email());
+                    usuario.setPassword(hash);
+
+                    // Asignar rol: si no se proporciona o no es ADMIN, asignar PROFESOR
+                    if (registerRequest.role() != null && registerRequest.role().equals("ROLE_ADMIN")) {
+                        usuario.setRoles("ROLE_ADMIN");
+                    } else {
+                        usuario.setRoles("ROLE_PROFESOR");
+                    }
+
+                    usuario.setEnabled(true);
+
+                    usuarioRepository.save(usuario);
+
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(Map.of("message", "Usuario registrado correctamente"));
+                })
+                .exceptionally(e -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", "Error al registrar usuario: " + e.getCause().getMessage())));
+    }
 
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Error al registrar usuario: " + e.getMessage()));
+    // Cerrar sesión: el token con el que se llama deja de ser válido en la API
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(Authentication authentication) {
+        if (authentication.getCredentials() instanceof Jwt jwt) {
+            jwtDecoder.revocar(jwt);
         }
+        return ResponseEntity.ok(Map.of("mensaje", "Sesión cerrada correctamente"));
     }
 
     // Cambiar contraseña (usuario autenticado)
     @PatchMapping("/cambiar-pass")
-    public ResponseEntity<String> cambiarPass(@Valid @RequestBody CambiarPasswordRequest req,
-                                              Authentication authentication) {
-        String email = authentication.getName();
-        if (!serviceUsuario.comprobarPasswordPorEmail(email, req.getPasswordActual())) {
-            return ResponseEntity.status(400).body("Contraseña actual incorrecta");
-        }
-        serviceUsuario.cambiarPasswordPorEmail(email, req.getNuevaPassword());
-        return ResponseEntity.ok("Contraseña cambiada correctamente");
+    public CompletableFuture<ResponseEntity<String>> cambiarPass(@Valid @RequestBody CambiarPasswordRequest req,
+                                                                 Authentication authentication) {
+        // El usuario se busca aquí y se guarda después: en el ejecutor de contraseñas solo se comprueba la actual
+        // y se cifra la nueva
+        Usuario usuario = serviceUsuario.findByEmail(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        String hashActual = usuario.getPassword();
+
+        return serviceContrasenas.ejecutarYDespues(
+                () -> passwordEncoder.matches(req.getPasswordActual(), hashActual)
+                        ? passwordEncoder.encode(req.getNuevaPassword())
+                        : null,
+                hashNuevo -> {
+                    if (hashNuevo == null) {
+                        return ResponseEntity.status(400).body("Contraseña actual incorrecta");
+                    }
+                    serviceUsuario.cambiarPassword(usuario.getId(), hashNuevo);
+                    return ResponseEntity.ok("Contraseña cambiada correctamente");
+                });
     }
 
     // Obtener el perfil del usuario autenticado
     @GetMapping("/perfil")
-    public ResponseEntity<?> obtenerPerfil(Authentication authentication) {
+    public ResponseEntity<?> obtenerPerfil(@AuthenticationPrincipal UsuarioAutenticado usuario) {
         try {
-            String email = authentication.getName();
-            Usuario usuario = usuarioRepository.findByEmail(email)
+            // El estado de la cuenta puede haber cambiado después de emitir el token: se lee de la base de datos
+            Usuario actual = usuarioRepository.findById(usuario.id())
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
             // Devolver DTO sin la contraseña
-            UsuarioDTO dto = new UsuarioDTO();
-            dto.setId(usuario.getId());
-            dto.setEmail(usuario.getEmail());
-            dto.setRoles(usuario.getRoles());
-            dto.setEnabled(usuario.isEnabled());
-
-            return ResponseEntity.ok(dto);
+            return ResponseEntity.ok(UsuarioMapper.toDto(actual));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error al obtener el perfil"));
@@ -0,0 +1,45 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import es.iesjuanbosco.roberto.ReservasAulas.config.JwtDecoderConCache;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.EstadisticasCacheDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+@AllArgsConstructor
+public class ControllerCache {
+
+    private final CacheManager cacheManager;
+    private final JwtDecoderConCache jwtDecoder;
+
+    // Aciertos, fallos y expulsiones de cada caché (catálogo y tokens) desde que arrancó la aplicación
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticasCacheDTO>> getEstadisticas() {
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(nombre) instanceof CaffeineCache cache) {
+                Cache<Object, Object> nativa = cache.getNativeCache();
+                CacheStats stats = nativa.stats();
+                estadisticas.add(new EstadisticasCacheDTO(nombre, nativa.estimatedSize(),
+                        stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount()));
+            }
+        }
+
+        // Tokens JWT ya verificados (no pasa por el CacheManager)
+        CacheStats tokens = jwtDecoder.estadisticas();
+        estadisticas.add(new EstadisticasCacheDTO("tokens", jwtDecoder.tokensEnCache(),
+                tokens.hitCount(), tokens.missCount(), tokens.hitRate(), tokens.evictionCount()));
+        return ResponseEntity.ok(estadisticas);
+    }
+}
@@ -0,0 +1,50 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.AulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.AulaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.services.DifusionOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceDisponibilidad;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/disponibilidad")
+@AllArgsConstructor
+public class ControllerDisponibilidad {
+
+    private final ServiceDisponibilidad serviceDisponibilidad;
+    private final DifusionOcupacion difusionOcupacion;
+
+    // Aulas libres en una fecha y horario, opcionalmente filtradas por capacidad mínima y ordenadores
+    @GetMapping
+    public ResponseEntity<List<AulaDTO>> getAulasLibres(
+            @RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha,
+            @RequestParam Long horarioId,
+            @RequestParam(required = false) Integer capacidadMin,
+            @RequestParam(required = false) Boolean esOrdenadores) {
+
+        List<Aula> libres = serviceDisponibilidad.buscarAulasLibres(fecha, horarioId, capacidadMin, esOrdenadores);
+        List<AulaDTO> libresDto = libres.stream()
+                .map(AulaMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(libresDto);
+    }
+
+    // Ocupación de una fecha en tiempo real (SSE): evento "estado" con los huecos ocupados al conectar y eventos
+    // "cambios" con los huecos que se ocupan o se liberan después
+    @GetMapping("/eventos")
+    public SseEmitter seguirOcupacion(@RequestParam @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha) {
+        return difusionOcupacion.suscribir(fecha);
+    }
+}
@@ -0,0 +1,46 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.EstadisticasOcupacionDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.services.EstadisticasOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceAula;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHorario;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/estadisticas")
+@AllArgsConstructor
+public class ControllerEstadisticas {
+
+    private final EstadisticasOcupacion estadisticasOcupacion;
+    private final ServiceAula serviceAula;
+    private final ServiceHorario serviceHorario;
+
+    // Reservas por aula y franja semanal, y ocupación por aula y mes. Se lee de los contadores en memoria y del
+    // catálogo en caché, sin recorrer las reservas.
+    @GetMapping("/ocupacion")
+    public ResponseEntity<EstadisticasOcupacionDTO> getOcupacion(@RequestParam(required = false) Long aulaId) {
+        return ResponseEntity.ok(estadisticasOcupacion.resumen(
+                serviceAula.obtenerTodas(), serviceHorario.obtenerTodas(), aulaId));
+    }
+
+    // Vuelve a calcular los contadores desde la base de datos (p. ej. tras cambios hechos desde otra instancia)
+    @PostMapping("/ocupacion/reconstruir")
+    public ResponseEntity<?> reconstruirOcupacion() {
+        try {
+            estadisticasOcupacion.reconstruir();
+            return ResponseEntity.ok(Map.of("mensaje", "Estadísticas de ocupación reconstruidas"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("mensaje", "Error al reconstruir las estadísticas: " + e.getMessage()));
+        }
+    }
+}
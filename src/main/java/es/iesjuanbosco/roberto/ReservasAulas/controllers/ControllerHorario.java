@@ -5,11 +5,13 @@ import es.iesjuanbosco.roberto.ReservasAulas.dtos.HorarioRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
 import es.iesjuanbosco.roberto.ReservasAulas.mapper.HorarioMapper;
 import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.services.VersionesColecciones;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,14 +22,20 @@ import java.util.stream.Collectors;
 public class ControllerHorario {
 
     private final ServiceHorario serviceHorario;
+    private final VersionesColecciones versiones;
 
     @GetMapping
-    public ResponseEntity<List<HorarioDTO>> getHorarios() {
+    public ResponseEntity<List<HorarioDTO>> getHorarios(ServletWebRequest peticion) {
+        String etag = versiones.etagHorarios();
+        if (RespuestaCondicional.noModificado(peticion, etag)) {
+            return null;
+        }
+
         List<Horario> horarios = serviceHorario.obtenerTodas();
         List<HorarioDTO> horariosDto = horarios.stream()
                 .map(HorarioMapper::toDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(horariosDto);
+        return ResponseEntity.ok().cacheControl(RespuestaCondicional.REVALIDAR).eTag(etag).body(horariosDto);
     }
 
     @GetMapping("/{id}")
@@ -58,14 +66,12 @@ public class ControllerHorario {
             @PathVariable Long id,
             @Valid @RequestBody HorarioRequest request) {
         try {
-            Horario horario = serviceHorario.obtenerPorId(id);
-            if (horario == null) {
+            Horario horarioActualizado = serviceHorario.actualizar(HorarioMapper.toEntity(request), id);
+            if (horarioActualizado == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Horario no encontrado con id: " + id);
             }
 
-            HorarioMapper.updateEntityFromRequest(horario, request);
-            Horario horarioActualizado = serviceHorario.guardar(horario);
             return ResponseEntity.ok(HorarioMapper.toDto(horarioActualizado));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
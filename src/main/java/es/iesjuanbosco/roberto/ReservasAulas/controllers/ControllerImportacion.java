@@ -0,0 +1,55 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceImportacion;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+// Importación masiva desde CSV (solo ADMIN). El cuerpo es el fichero tal cual (Content-Type: text/csv) y se
+// procesa según llega, sin guardarlo entero en memoria. La respuesta resume las filas importadas y rechazadas.
+@RestController
+@RequestMapping("/importacion")
+@AllArgsConstructor
+public class ControllerImportacion {
+
+    private final ServiceImportacion serviceImportacion;
+
+    @PostMapping(value = "/aulas", consumes = "text/csv")
+    public ResponseEntity<?> importarAulas(InputStream cuerpo) {
+        return importar(() -> serviceImportacion.importarAulas(cuerpo));
+    }
+
+    @PostMapping(value = "/horarios", consumes = "text/csv")
+    public ResponseEntity<?> importarHorarios(InputStream cuerpo) {
+        return importar(() -> serviceImportacion.importarHorarios(cuerpo));
+    }
+
+    @PostMapping(value = "/reservas", consumes = "text/csv")
+    public ResponseEntity<?> importarReservas(InputStream cuerpo) {
+        return importar(() -> serviceImportacion.importarReservas(cuerpo));
+    }
+
+    private interface Importacion {
+        ResultadoImportacion ejecutar() throws IOException;
+    }
+
+    private ResponseEntity<?> importar(Importacion importacion) {
+        try {
+            return ResponseEntity.ok(importacion.ejecutar());
+        } catch (IllegalArgumentException e) {
+            // Cabecera incompleta o fichero mal formado
+            return ResponseEntity.badRequest().body(Map.of("mensaje", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("mensaje", "Error al leer el fichero: " + e.getMessage()));
+        }
+    }
+}
@@ -1,20 +1,37 @@
 package es.iesjuanbosco.roberto.ReservasAulas.controllers;
 
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.PaginaReservasDTO;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRecurrenteRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoReservaLote;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
 import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ArchivoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHistorico;
 import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceReserva;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,15 +40,100 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ControllerReserva {
 
+    private static final int MAX_RESERVAS_LOTE = 1000;
+    private static final int MAX_LIMITE_PAGINA = 200;
+
     private final ServiceReserva serviceReserva;
+    private final ServiceExportacion serviceExportacion;
+    private final ServiceHistorico serviceHistorico;
+    private final ArchivoReservas archivoReservas;
 
+    // Listado paginado por clave (fecha, id). Para la siguiente página se envía el siguienteCursor recibido.
     @GetMapping
-    public ResponseEntity<List<ReservaDTO>> getReservas() {
-        List<Reserva> reservas = serviceReserva.obtenerTodas();
+    public ResponseEntity<PaginaReservasDTO> getReservas(
+            @RequestParam(required = false) Long aulaId,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta,
+            @RequestParam(required = false) DiaSemana diaSemana,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+
+        int limiteValido = Math.max(1, Math.min(limite, MAX_LIMITE_PAGINA));
+        CursorReserva posicion = cursor != null ? CursorReserva.decodificar(cursor) : null;
+
+        List<Reserva> reservas = serviceReserva.obtenerPagina(
+                aulaId, usuarioId, desde, hasta, diaSemana, posicion, limiteValido);
+        return ResponseEntity.ok(pagina(reservas, limiteValido));
+    }
+
+    // Reservas archivadas (ver ArchivoReservas), con los mismos filtros y paginación que el listado
+    @GetMapping("/historico")
+    public ResponseEntity<PaginaReservasDTO> getHistorico(
+            @RequestParam(required = false) Long aulaId,
+            @RequestParam(required = false) Long usuarioId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta,
+            @RequestParam(required = false) DiaSemana diaSemana,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+
+        int limiteValido = Math.max(1, Math.min(limite, MAX_LIMITE_PAGINA));
+        CursorReserva posicion = cursor != null ? CursorReserva.decodificar(cursor) : null;
+
+        List<Reserva> reservas = serviceHistorico.obtenerPagina(
+                aulaId, usuarioId, desde, hasta, diaSemana, posicion, limiteValido);
+        return ResponseEntity.ok(pagina(reservas, limiteValido));
+    }
+
+    // Archiva ya las reservas pasadas, sin esperar a la tarea nocturna (solo ADMIN)
+    @PostMapping("/historico/archivar")
+    public ResponseEntity<?> archivarReservas() {
+        try {
+            OptionalInt archivadas = archivoReservas.archivar();
+            if (archivadas.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("mensaje", "Ya hay un archivado de reservas en curso"));
+            }
+            return ResponseEntity.ok(Map.of("mensaje", "Reservas archivadas: " + archivadas.getAsInt()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("mensaje", "Error al archivar las reservas: " + e.getMessage()));
+        }
+    }
+
+    // Las listas llegan con hasta limite + 1 reservas: si llega la extra, hay siguiente página
+    private static PaginaReservasDTO pagina(List<Reserva> reservas, int limite) {
+        String siguienteCursor = null;
+        if (reservas.size() > limite) {
+            reservas = reservas.subList(0, limite);
+            Reserva ultima = reservas.get(limite - 1);
+            siguienteCursor = new CursorReserva(ultima.getFecha(), ultima.getId()).codificar();
+        }
+
         List<ReservaDTO> reservasDto = reservas.stream()
                 .map(ReservaMapper::toDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(reservasDto);
+        return new PaginaReservasDTO(reservasDto, siguienteCursor);
+    }
+
+    // Exportación completa (solo ADMIN) en NDJSON o CSV. Las filas se escriben según se leen de la base de
+    // datos, así que la memoria no depende del número de reservas.
+    // El tipo del cuerpo debe ser StreamingResponseBody: con ResponseEntity<?> Spring no lo reconoce y no lo escribe
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(@RequestParam(defaultValue = "ndjson") String formato) {
+        return switch (formato.toLowerCase()) {
+            case "ndjson" -> ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservas.ndjson\"")
+                    .body((StreamingResponseBody) serviceExportacion::exportarNdjson);
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservas.csv\"")
+                    .body((StreamingResponseBody) serviceExportacion::exportarCsv);
+            // GlobalExceptionHandler responde 400 con el mensaje
+            default -> throw new IllegalArgumentException("Formato no soportado: " + formato + ". Use ndjson o csv.");
+        };
     }
 
     @GetMapping("/{id}")
@@ -49,40 +151,71 @@ public class ControllerReserva {
     @PostMapping
     public ResponseEntity<?> createReserva(
             @RequestBody @Valid ReservaRequest request,
-            Authentication authentication) {
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
         try {
-            // Obtener el email del usuario autenticado
-            String emailUsuario = authentication.getName();
-
-            Reserva creada = serviceReserva.guardarConUsuario(request, emailUsuario);
+            Reserva creada = serviceReserva.guardarConUsuario(request, usuario);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ReservaMapper.toDto(creada));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Error de validación: " + e.getMessage());
+        } catch (ConflictoReservaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al crear la reserva: " + e.getMessage());
         }
     }
 
+    // Reserva que se repite cada semana (o cada dos) hasta una fecha, salvo las excepciones indicadas
+    @PostMapping("/recurrente")
+    public ResponseEntity<?> createReservaRecurrente(
+            @RequestBody @Valid ReservaRecurrenteRequest request,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        try {
+            List<Reserva> creadas = serviceReserva.guardarRecurrente(request, usuario);
+            List<ReservaDTO> creadasDto = creadas.stream()
+                    .map(ReservaMapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.status(HttpStatus.CREATED).body(creadasDto);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Error de validación: " + e.getMessage());
+        }
+    }
+
+    // Alta de varias reservas en una sola petición. Cada elemento se valida por separado
+    // y la respuesta indica, en el mismo orden, si se creó o por qué se rechazó.
+    @PostMapping("/batch")
+    public ResponseEntity<?> createReservasLote(
+            @RequestBody List<ReservaRequest> requests,
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("mensaje", "El lote de reservas está vacío"));
+        }
+        if (requests.size() > MAX_RESERVAS_LOTE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("mensaje", "El lote no puede superar " + MAX_RESERVAS_LOTE + " reservas"));
+        }
+
+        List<ResultadoReservaLote> resultados = serviceReserva.guardarLote(requests, usuario);
+        return ResponseEntity.ok(resultados);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateReserva(
             @RequestBody @Valid ReservaRequest request,
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
         try {
             // Verificar que la reserva existe
             Reserva reservaExistente = serviceReserva.obtenerPorId(id)
                     .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
 
-            // Obtener email y roles del usuario autenticado
-            String emailUsuario = authentication.getName();
-            boolean esAdmin = authentication.getAuthorities().stream()
-                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
-
-            // Verificar propiedad: solo el creador o un ADMIN pueden editar
-            if (!esAdmin && !reservaExistente.getUsuario().getEmail().equals(emailUsuario)) {
+            // Verificar propiedad: solo el creador o un ADMIN pueden editar (se comparan ids, sin cargar el usuario)
+            if (!usuario.esAdmin() && !reservaExistente.getUsuario().getId().equals(usuario.id())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Solo puedes editar tus propias reservas");
             }
@@ -93,6 +226,9 @@ public class ControllerReserva {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Error de validación: " + e.getMessage());
+        } catch (ConflictoReservaException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al actualizar la reserva: " + e.getMessage());
@@ -102,24 +238,19 @@ public class ControllerReserva {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteReserva(
             @PathVariable Long id,
-            Authentication authentication) {
+            @AuthenticationPrincipal UsuarioAutenticado usuario) {
         try {
             // Verificar que la reserva existe
             Reserva reserva = serviceReserva.obtenerPorId(id)
                     .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
 
-            // Obtener email y roles del usuario autenticado
-            String emailUsuario = authentication.getName();
-            boolean esAdmin = authentication.getAuthorities().stream()
-                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
-
-            // Verificar propiedad: solo el creador o un ADMIN pueden eliminar
-            if (!esAdmin && !reserva.getUsuario().getEmail().equals(emailUsuario)) {
+            // Verificar propiedad: solo el creador o un ADMIN pueden eliminar (se comparan ids, sin cargar el usuario)
+            if (!usuario.esAdmin() && !reserva.getUsuario().getId().equals(usuario.id())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Solo puedes eliminar tus propias reservas");
             }
 
-            serviceReserva.eliminar(id);
+            serviceReserva.eliminar(reserva);
             return ResponseEntity.ok().body("Reserva eliminada correctamente");
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
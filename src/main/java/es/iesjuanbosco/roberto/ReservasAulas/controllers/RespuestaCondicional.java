@@ -0,0 +1,25 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+// GET condicional con If-None-Match para los listados que el frontend consulta periódicamente
+final class RespuestaCondicional {
+
+    // El navegador guarda la respuesta pero la revalida siempre (son datos por usuario autenticado)
+    static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    private RespuestaCondicional() {
+    }
+
+    // true si el cliente ya tiene la versión actual: la respuesta 304 queda preparada y el controlador
+    // debe devolver null sin cargar nada
+    static boolean noModificado(ServletWebRequest peticion, String etag) {
+        if (!peticion.checkNotModified(etag)) {
+            return false;
+        }
+        peticion.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDAR.getHeaderValue());
+        return true;
+    }
+}
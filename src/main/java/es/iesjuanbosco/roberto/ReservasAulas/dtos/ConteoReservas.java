@@ -0,0 +1,10 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+// Número de reservas de un aula en un horario y un mes: se construye directamente en la consulta agregada
+public record ConteoReservas(
+        Long aulaId,
+        Long horarioId,
+        Integer anio,
+        Integer mes,
+        Long reservas
+) {}
@@ -0,0 +1,24 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+// Posición (fecha, id) de la última reserva devuelta; se envía al cliente como texto opaco
+public record CursorReserva(LocalDate fecha, Long id) {
+
+    public String codificar() {
+        String valor = fecha + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorReserva decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split(",");
+            return new CursorReserva(LocalDate.parse(partes[0]), Long.parseLong(partes[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Un día del cuadrante semanal: los horarios de ese día de la semana, ordenados por hora de inicio
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaSemanaAulaDTO {
+    private String diaSemana;
+    private LocalDate fecha;
+    private List<HuecoSemanaDTO> huecos;
+}
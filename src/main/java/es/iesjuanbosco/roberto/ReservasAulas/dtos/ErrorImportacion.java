@@ -0,0 +1,7 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+// Fila rechazada de una importación: línea del fichero en la que empieza y motivo
+public record ErrorImportacion(
+        long linea,
+        String mensaje
+) {}
@@ -0,0 +1,17 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    private String nombre;
+    private long entradas;
+    private long aciertos;
+    private long fallos;
+    private double tasaAciertos;
+    private long expulsiones;
+}
@@ -0,0 +1,17 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasOcupacionDTO {
+    private List<OcupacionFranjaDTO> porFranja;
+    private List<OcupacionMesDTO> porMes;
+    private List<OcupacionAulaDTO> totalPorAula;
+    private List<OcupacionTotalMesDTO> totalPorMes;
+}
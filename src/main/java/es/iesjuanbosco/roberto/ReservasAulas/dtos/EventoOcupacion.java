@@ -0,0 +1,10 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Datos de un evento del flujo de ocupación: la foto inicial (huecos ocupados) o un lote de cambios
+public record EventoOcupacion(
+        LocalDate fecha,
+        List<HuecoOcupacion> huecos
+) {}
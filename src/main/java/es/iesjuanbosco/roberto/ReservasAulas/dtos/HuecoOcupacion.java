@@ -0,0 +1,8 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+// Estado de un hueco (aula y horario) en la fecha que sigue el cliente
+public record HuecoOcupacion(
+        Long aulaId,
+        Long horarioId,
+        boolean ocupada
+) {}
@@ -0,0 +1,18 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.Data;
+
+// Un horario en una fecha concreta. Si está libre, los datos de la reserva quedan a null.
+@Data
+public class HuecoSemanaDTO {
+    private Long horarioId;
+    private String horaInicio;
+    private String horaFin;
+
+    // Información de la reserva que lo ocupa
+    private Long reservaId;
+    private String motivo;
+    private Integer asistentes;
+    private Long usuarioId;
+    private String usuarioEmail;
+}
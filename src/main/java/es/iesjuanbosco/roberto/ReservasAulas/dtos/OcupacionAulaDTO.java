@@ -0,0 +1,15 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Reservas acumuladas de un aula en total
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionAulaDTO {
+    private Long aulaId;
+    private String aulaNombre;
+    private long reservas;
+}
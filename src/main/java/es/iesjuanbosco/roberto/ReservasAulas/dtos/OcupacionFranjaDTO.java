@@ -0,0 +1,19 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Reservas acumuladas de un aula en una franja semanal (día de la semana y horario)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionFranjaDTO {
+    private Long aulaId;
+    private String aulaNombre;
+    private String diaSemana;
+    private Long horarioId;
+    private String horaInicio;
+    private String horaFin;
+    private long reservas;
+}
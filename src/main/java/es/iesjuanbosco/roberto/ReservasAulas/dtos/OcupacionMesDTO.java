@@ -0,0 +1,18 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ocupación de un aula en un mes: reservas sobre los huecos que ofrecen los horarios ese mes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionMesDTO {
+    private Long aulaId;
+    private String aulaNombre;
+    private String mes;          // yyyy-MM
+    private long reservas;
+    private long huecos;
+    private double porcentaje;
+}
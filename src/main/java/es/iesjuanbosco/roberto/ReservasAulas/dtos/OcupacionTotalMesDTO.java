@@ -0,0 +1,16 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ocupación de un mes sumando todas las aulas consultadas: reservas sobre los huecos de todas ellas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionTotalMesDTO {
+    private String mes;          // yyyy-MM
+    private long reservas;
+    private long huecos;
+    private double porcentaje;
+}
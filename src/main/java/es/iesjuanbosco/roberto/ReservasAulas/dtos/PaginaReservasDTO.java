@@ -0,0 +1,17 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaReservasDTO {
+    private List<ReservaDTO> reservas;
+
+    // null cuando no quedan más reservas
+    private String siguienteCursor;
+}
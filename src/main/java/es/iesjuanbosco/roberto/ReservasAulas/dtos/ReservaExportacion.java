@@ -0,0 +1,23 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Fila plana de la exportación: se construye directamente en la consulta, sin entidades gestionadas
+public record ReservaExportacion(
+        Long id,
+        LocalDate fecha,
+        String motivo,
+        Integer asistentes,
+        LocalDate fechaCreacion,
+        Long aulaId,
+        String aulaNombre,
+        Long horarioId,
+        DiaSemana horarioDiaSemana,
+        LocalTime horarioHoraInicio,
+        LocalTime horarioHoraFin,
+        Long usuarioId,
+        String usuarioEmail
+) {}
@@ -0,0 +1,54 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import es.iesjuanbosco.roberto.ReservasAulas.config.CustomLocalDateDeserializer;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.Frecuencia;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ReservaRecurrenteRequest {
+    @NotNull(message = "El ID del horario no puede ser nulo")
+    @Positive(message = "El ID del horario debe ser mayor que 0")
+    private Long horarioId;
+
+    @NotNull(message = "El ID del aula no puede ser nulo")
+    @Positive(message = "El ID del aula debe ser mayor que 0")
+    private Long aulaId;
+
+    @NotBlank(message = "El motivo no puede estar vacío")
+    @Size(min = 3, max = 200, message = "El motivo debe tener entre 3 y 200 caracteres")
+    private String motivo;
+
+    @NotNull(message = "El número de asistentes no puede ser nulo")
+    @Positive(message = "El número de asistentes debe ser un valor positivo")
+    private Integer asistentes;
+
+    @NotNull(message = "La frecuencia es obligatoria")
+    private Frecuencia frecuencia;
+
+    // La primera reserva es el primer día desde esta fecha que coincide con el día del horario
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    @FutureOrPresent(message = "No se pueden hacer reservas en el pasado")
+    @JsonFormat(pattern = "dd/MM/yyyy", shape = JsonFormat.Shape.STRING)
+    @JsonDeserialize(using = CustomLocalDateDeserializer.class)
+    private LocalDate fechaInicio;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    @JsonFormat(pattern = "dd/MM/yyyy", shape = JsonFormat.Shape.STRING)
+    @JsonDeserialize(using = CustomLocalDateDeserializer.class)
+    private LocalDate fechaFin;
+
+    // Fechas que se saltan (festivos, evaluaciones...)
+    @JsonDeserialize(contentUsing = CustomLocalDateDeserializer.class)
+    private List<LocalDate> excepciones = new ArrayList<>();
+}
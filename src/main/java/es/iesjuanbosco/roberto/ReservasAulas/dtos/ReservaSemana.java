@@ -0,0 +1,14 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import java.time.LocalDate;
+
+// Reserva de la semana de un aula con lo que se muestra en su celda: se construye directamente en la consulta
+public record ReservaSemana(
+        Long id,
+        LocalDate fecha,
+        Long horarioId,
+        String motivo,
+        Integer asistentes,
+        Long usuarioId,
+        String usuarioEmail
+) {}
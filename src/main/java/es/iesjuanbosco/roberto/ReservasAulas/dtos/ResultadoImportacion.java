@@ -0,0 +1,21 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResultadoImportacion {
+    private String tipo;
+
+    // Filas de datos leídas (sin la cabecera), guardadas y rechazadas
+    private long filas;
+    private long importadas;
+    private long rechazadas;
+
+    // Detalle de las primeras filas rechazadas; el resto solo cuenta en rechazadas
+    private List<ErrorImportacion> errores = new ArrayList<>();
+
+    private long milisegundos;
+}
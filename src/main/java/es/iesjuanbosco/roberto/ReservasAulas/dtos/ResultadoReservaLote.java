@@ -0,0 +1,20 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoReservaLote {
+    // Posición de la reserva dentro del lote enviado
+    private int indice;
+    private boolean creada;
+
+    // Solo si se ha creado
+    private ReservaDTO reserva;
+
+    // Solo si se ha rechazado
+    private String error;
+}
@@ -0,0 +1,20 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Cuadrante semanal de un aula, de lunes (desde) a domingo (hasta)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SemanaAulaDTO {
+    private Long aulaId;
+    private String aulaNombre;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private List<DiaSemanaAulaDTO> dias;
+}
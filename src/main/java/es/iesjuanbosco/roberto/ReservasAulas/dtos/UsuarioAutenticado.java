@@ -0,0 +1,30 @@
+package es.iesjuanbosco.roberto.ReservasAulas.dtos;
+
+import es.iesjuanbosco.roberto.ReservasAulas.services.JwtService;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Arrays;
+
+/**
+ * Usuario de la petición, construido a partir de los claims del token JWT ya validado (sin consultar la base de datos).
+ * Se recibe en los controladores con {@code @AuthenticationPrincipal UsuarioAutenticado usuario}.
+ */
+public record UsuarioAutenticado(Long id, String email, String roles) implements AuthenticatedPrincipal {
+
+    public static UsuarioAutenticado desde(Jwt jwt) {
+        Number id = jwt.getClaim(JwtService.CLAIM_ID_USUARIO);
+        return new UsuarioAutenticado(id != null ? id.longValue() : null, jwt.getSubject(),
+                jwt.getClaimAsString(JwtService.CLAIM_ROLES));
+    }
+
+    public boolean esAdmin() {
+        return roles != null && Arrays.asList(roles.split(",")).contains("ROLE_ADMIN");
+    }
+
+    // Nombre de la autenticación (authentication.getName()): el email, como antes
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -22,7 +22,10 @@ public class Aula {
     private Integer capacidad;
     private Boolean esOrdenadores;
 
+    // Fuera de toString/equals/hashCode: las aulas de la caché están desconectadas y la colección es LAZY
     @OneToMany(mappedBy = "aula", cascade = {CascadeType.ALL, CascadeType.REMOVE}, orphanRemoval = true)
     @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Reserva> reservas;
 }
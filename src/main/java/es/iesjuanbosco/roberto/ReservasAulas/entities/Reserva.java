@@ -7,7 +7,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "reservas")
+@Table(name = "reservas", uniqueConstraints = @UniqueConstraint(
+        name = Reserva.RESTRICCION_HUECO, columnNames = {"aula_id", "fecha", "horario_id"}))
+// Plan de carga para listados y detalle: aula, horario y usuario en la misma consulta
+@NamedEntityGraph(name = "Reserva.detalle", attributeNodes = {
+        @NamedAttributeNode("aula"),
+        @NamedAttributeNode("horario"),
+        @NamedAttributeNode("usuario")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,6 +22,9 @@ import java.time.LocalDate;
 @ToString
 public class Reserva {
 
+    // Un aula no puede tener dos reservas en la misma fecha y horario
+    public static final String RESTRICCION_HUECO = "uk_reserva_aula_fecha_horario";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
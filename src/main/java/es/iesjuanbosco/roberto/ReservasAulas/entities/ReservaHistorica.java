@@ -0,0 +1,39 @@
+package es.iesjuanbosco.roberto.ReservasAulas.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+
+// Reserva pasada movida a reservas_historico (ver ArchivoReservas). Solo se consulta: conserva el id que tenía
+// en reservas y no se vuelve a modificar
+@Entity
+@Table(name = "reservas_historico")
+@Immutable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+public class ReservaHistorica {
+
+    @Id
+    private Long id;
+    private LocalDate fecha;
+    private String motivo;
+    private Integer asistentes;
+    private LocalDate fechaCreacion;
+
+    @ManyToOne
+    @JoinColumn(name = "aula_id", nullable = false)
+    private Aula aula;
+
+    @ManyToOne
+    @JoinColumn(name = "horario_id", nullable = false)
+    private Horario horario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+}
@@ -1,7 +1,18 @@
 package es.iesjuanbosco.roberto.ReservasAulas.enums;
 
+import java.time.DayOfWeek;
+
 public enum DiaSemana {
-    LUNES, MARTES, MIERCOLES, JUEVES, VIERNES, SABADO, DOMINGO
+    LUNES, MARTES, MIERCOLES, JUEVES, VIERNES, SABADO, DOMINGO;
+
+    // Mismo orden que java.time.DayOfWeek (MONDAY = 1)
+    public DayOfWeek toDayOfWeek() {
+        return DayOfWeek.of(ordinal() + 1);
+    }
+
+    public static DiaSemana from(DayOfWeek dia) {
+        return values()[dia.getValue() - 1];
+    }
 }
 
 
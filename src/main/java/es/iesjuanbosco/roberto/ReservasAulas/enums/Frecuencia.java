@@ -0,0 +1,15 @@
+package es.iesjuanbosco.roberto.ReservasAulas.enums;
+
+public enum Frecuencia {
+    SEMANAL(1), QUINCENAL(2);
+
+    private final int semanas;
+
+    Frecuencia(int semanas) {
+        this.semanas = semanas;
+    }
+
+    public int getSemanas() {
+        return semanas;
+    }
+}
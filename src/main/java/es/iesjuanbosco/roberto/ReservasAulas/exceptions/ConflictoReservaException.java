@@ -0,0 +1,8 @@
+package es.iesjuanbosco.roberto.ReservasAulas.exceptions;
+
+// El hueco (aula, fecha, horario) ya está ocupado por otra reserva
+public class ConflictoReservaException extends RuntimeException {
+    public ConflictoReservaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -1,6 +1,7 @@
 package es.iesjuanbosco.roberto.ReservasAulas.exceptions;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -76,6 +77,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Maneja reservas que chocan con otra en el mismo hueco (409 Conflict)
+     */
+    @ExceptionHandler(ConflictoReservaException.class)
+    public ResponseEntity<Map<String, String>> handleConflictoReserva(ConflictoReservaException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("mensaje", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja el rechazo por saturación (503 Service Unavailable), indicando cuándo reintentar
+     */
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<Map<String, String>> handleServicioSaturado(ServicioSaturadoException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("mensaje", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     /**
      * Maneja cualquier otra excepción no capturada
      */
@@ -0,0 +1,8 @@
+package es.iesjuanbosco.roberto.ReservasAulas.exceptions;
+
+// No se admite más trabajo de este tipo por ahora (cola llena); el cliente debe reintentar más tarde
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String mensaje) {
+        super(mensaje);
+    }
+}
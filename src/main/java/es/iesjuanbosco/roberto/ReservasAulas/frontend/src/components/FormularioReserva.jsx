@@ -1,5 +1,6 @@
 // COMPONENTE: Formulario reutilizable para crear/editar
 import { useState, useEffect } from 'react';
+import { ocupacionService } from '../services/ocupacionService';
 
 // Obtener día de la semana desde fecha
 const getDayName = (dateStr) => {
@@ -9,6 +10,16 @@ const getDayName = (dateStr) => {
   return days[date.getDay()];
 };
 
+// Fecha de hoy en formato yyyy-MM-dd (la del input date)
+const hoyISO = () => {
+  const hoy = new Date();
+  const month = String(hoy.getMonth() + 1).padStart(2, '0');
+  const day = String(hoy.getDate()).padStart(2, '0');
+  return `${hoy.getFullYear()}-${month}-${day}`;
+};
+
+const clave = (aulaId, horarioId) => `${aulaId}-${horarioId}`;
+
 export default function FormularioReserva({
   reservaEditando,
   onGuardar,
@@ -23,12 +34,41 @@ export default function FormularioReserva({
   const [motivo, setMotivo] = useState('');
   const [asistentes, setAsistentes] = useState('');
   const [error, setError] = useState('');
+  // Huecos ocupados en la fecha elegida ("aulaId-horarioId"), actualizados en directo
+  const [ocupados, setOcupados] = useState(new Set());
 
   // Filtrar horarios según día de la semana
   const horariosFiltrados = fecha && horarios
     ? horarios.filter(h => h.diaSemana === getDayName(fecha))
     : horarios || [];
 
+  // Seguir la ocupación de la fecha elegida mientras el formulario está abierto (solo de hoy en adelante)
+  useEffect(() => {
+    setOcupados(new Set());
+    if (!fecha || fecha < hoyISO()) return undefined;
+
+    return ocupacionService.seguir(fecha, {
+      onEstado: (huecos) => setOcupados(new Set(huecos.map(h => clave(h.aulaId, h.horarioId)))),
+      onCambios: (huecos) => setOcupados(anteriores => {
+        const nuevos = new Set(anteriores);
+        huecos.forEach(h => {
+          if (h.ocupada) nuevos.add(clave(h.aulaId, h.horarioId));
+          else nuevos.delete(clave(h.aulaId, h.horarioId));
+        });
+        return nuevos;
+      }),
+    });
+  }, [fecha]);
+
+  // El hueco de la reserva que se edita no cuenta como ocupado
+  const estaOcupado = (horario) =>
+    aulaId !== ''
+    && ocupados.has(clave(aulaId, horario.id))
+    && !(reservaEditando
+      && String(reservaEditando.aulaId) === String(aulaId)
+      && String(reservaEditando.horarioId) === String(horario.id)
+      && reservaEditando.fecha === fecha);
+
   // Actualizar campos del formulario cuando cambia reservaEditando
   useEffect(() => {
     if (reservaEditando) {
@@ -156,8 +196,8 @@ export default function FormularioReserva({
           >
             <option value="">{fecha ? 'Selecciona un horario' : 'Primero selecciona una fecha'}</option>
             {horariosFiltrados.map(horario => (
-              <option key={horario.id} value={horario.id}>
-                {horario.horaInicio} - {horario.horaFin}
+              <option key={horario.id} value={horario.id} disabled={estaOcupado(horario)}>
+                {horario.horaInicio} - {horario.horaFin}{estaOcupado(horario) ? ' (ocupado)' : ''}
               </option>
             ))}
           </select>
@@ -166,6 +206,11 @@ export default function FormularioReserva({
               No hay horarios disponibles para este día
             </p>
           )}
+          {horarioId && horariosFiltrados.some(h => String(h.id) === String(horarioId) && estaOcupado(h)) && (
+            <p className="mt-1 text-sm text-red-600">
+              Este horario acaba de ocuparse en el aula elegida
+            </p>
+          )}
         </div>
 
         <div>
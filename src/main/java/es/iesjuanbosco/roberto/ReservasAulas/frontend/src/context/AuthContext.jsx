@@ -1,5 +1,6 @@
 // Contexto global: gestiona autenticación JWT en toda la app
 import { createContext, useContext, useState, useEffect } from 'react';
+import { authService } from '../services/authService';
 
 const AuthContext = createContext();
 
@@ -8,7 +9,7 @@ export const AuthProvider = ({ children }) => {
   const [user, setUser] = useState(null);
   const [loading, setLoading] = useState(true);
 
-  // Decodifica token JWT y extrae email y roles
+  // Decodifica token JWT y extrae id, email y roles
   const decodeToken = (token) => {
     try {
       const payload = JSON.parse(atob(token.split('.')[1]));
@@ -23,6 +24,7 @@ export const AuthProvider = ({ children }) => {
       }
 
       return {
+        id: payload.uid,
         email: payload.sub,
         roles: roles,
       };
@@ -59,6 +61,10 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revocar el token en el servidor; la sesión local se cierra igualmente aunque falle
+    if (token) {
+      authService.logout().catch(() => {});
+    }
     setToken(null);
     setUser(null);
     localStorage.removeItem('jwt_token');
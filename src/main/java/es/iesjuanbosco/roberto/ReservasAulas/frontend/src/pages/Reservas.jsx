@@ -1,6 +1,7 @@
 // PÁGINA: Gestión de Reservas - CRUD completo con filtros por rol
 import { useState, useEffect } from 'react';
 import { reservaService } from '../services/reservaService';
+import { formatDateToDDMMYYYY } from '../utils/api';
 import { aulaService } from '../services/aulaService';
 import { horarioService } from '../services/horarioService';
 import { useAuth } from '../context/AuthContext';
@@ -12,6 +13,8 @@ export default function Reservas() {
 
   // Estados: lista de datos, cargando, errores, formulario
   const [todasLasReservas, setTodasLasReservas] = useState([]);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
+  const [cargandoMas, setCargandoMas] = useState(false);
   const [aulas, setAulas] = useState([]);
   const [horarios, setHorarios] = useState([]);
   const [cargando, setCargando] = useState(false);
@@ -24,18 +27,25 @@ export default function Reservas() {
     cargarDatos();
   }, []);
 
+  // Solo las reservas de hoy en adelante; los profesores, solo las suyas. El servidor filtra y pagina
+  const filtrosReservas = () => ({
+    desde: formatDateToDDMMYYYY(new Date()),
+    ...(isAdmin ? {} : { usuarioId: user?.id }),
+  });
+
   const cargarDatos = async () => {
     setCargando(true);
     setError('');
 
     try {
-      const [reservasData, aulasData, horariosData] = await Promise.all([
-        reservaService.obtenerTodas(),
+      const [paginaReservas, aulasData, horariosData] = await Promise.all([
+        reservaService.obtenerPagina(filtrosReservas()),
         aulaService.obtenerTodas(),
         horarioService.obtenerTodos()
       ]);
 
-      setTodasLasReservas(reservasData);
+      setTodasLasReservas(paginaReservas.reservas);
+      setSiguienteCursor(paginaReservas.siguienteCursor);
       setAulas(aulasData);
       setHorarios(horariosData);
     } catch (err) {
@@ -46,6 +56,21 @@ export default function Reservas() {
     }
   };
 
+  // Siguiente página bajo demanda, con los mismos filtros
+  const cargarMas = async () => {
+    setCargandoMas(true);
+    try {
+      const pagina = await reservaService.obtenerPagina({ ...filtrosReservas(), cursor: siguienteCursor });
+      setTodasLasReservas([...todasLasReservas, ...pagina.reservas]);
+      setSiguienteCursor(pagina.siguienteCursor);
+    } catch (err) {
+      setError('Error al cargar más reservas');
+      console.error(err);
+    } finally {
+      setCargandoMas(false);
+    }
+  };
+
   // Filtrar por rol: profesores ven solo las suyas, admin ve todas
   const reservasFiltradas = isAdmin
     ? todasLasReservas
@@ -155,6 +180,19 @@ export default function Reservas() {
         ))}
       </div>
 
+      {/* Botón para la siguiente página */}
+      {siguienteCursor && (
+        <div className="text-center mt-8">
+          <button
+            onClick={cargarMas}
+            disabled={cargandoMas}
+            className="px-4 py-2 bg-gray-200 text-gray-800 rounded-lg hover:bg-gray-300 disabled:opacity-50"
+          >
+            {cargandoMas ? 'Cargando...' : 'Cargar más'}
+          </button>
+        </div>
+      )}
+
       {/* Mensaje cuando no hay resultados */}
       {reservasFiltradas.length === 0 && !cargando && (
         <p className="text-center text-gray-500 mt-8">
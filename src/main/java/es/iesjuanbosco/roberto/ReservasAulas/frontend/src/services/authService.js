@@ -18,6 +18,12 @@ export const authService = {
     return response.data;
   },
 
+  // POST: Cerrar sesión (el servidor revoca el token actual)
+  logout: async () => {
+    const response = await apiClient.post('/auth/logout');
+    return response.data;
+  },
+
   // PATCH: Cambiar contraseña
   changePassword: async (passwordActual, nuevaPassword) => {
     const response = await apiClient.patch('/auth/cambiar-pass', {
@@ -0,0 +1,88 @@
+// Servicio de ocupación en directo (SSE de /disponibilidad/eventos)
+import { API_BASE_URL, formatDateToDDMMYYYY } from '../utils/api';
+
+// EventSource no permite enviar la cabecera Authorization, así que el flujo se lee con fetch
+const REINTENTO_MS = 5000;
+
+// Reparte los eventos completos del texto recibido y devuelve lo que queda a medias
+const procesarEventos = (texto, onEvento) => {
+  const bloques = texto.replace(/\r\n/g, '\n').split('\n\n');
+  const pendiente = bloques.pop();
+
+  bloques.forEach(bloque => {
+    let nombre = 'message';
+    const datos = [];
+    bloque.split('\n').forEach(linea => {
+      // Las líneas que empiezan por ':' son comentarios (latidos)
+      if (!linea || linea.startsWith(':')) return;
+      const separador = linea.indexOf(':');
+      const campo = separador === -1 ? linea : linea.substring(0, separador);
+      const valor = separador === -1 ? '' : linea.substring(separador + 1).replace(/^ /, '');
+      if (campo === 'event') nombre = valor;
+      if (campo === 'data') datos.push(valor);
+    });
+    if (datos.length > 0) {
+      onEvento(nombre, JSON.parse(datos.join('\n')));
+    }
+  });
+
+  return pendiente;
+};
+
+export const ocupacionService = {
+  // Sigue la ocupación de una fecha (de hoy en adelante): onEstado recibe los huecos ocupados al conectar y
+  // onCambios los que se ocupan o se liberan. Devuelve una función para dejar de seguirla
+  seguir: (fecha, { onEstado, onCambios, onError }) => {
+    const controlador = new AbortController();
+    const url = `${API_BASE_URL}/disponibilidad/eventos?fecha=${encodeURIComponent(formatDateToDDMMYYYY(fecha))}`;
+
+    const conectar = async () => {
+      try {
+        const token = localStorage.getItem('jwt_token');
+        const response = await fetch(url, {
+          headers: {
+            Accept: 'text/event-stream',
+            ...(token ? { Authorization: `Bearer ${token}` } : {}),
+          },
+          signal: controlador.signal,
+        });
+
+        if (response.status === 401) {
+          localStorage.removeItem('jwt_token');
+          window.location.href = '/login';
+          return;
+        }
+        if (!response.ok) {
+          // 400 (fecha pasada) o 403: no tiene sentido reintentar
+          onError?.(response.status);
+          return;
+        }
+
+        const lector = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let pendiente = '';
+        for (;;) {
+          const { value, done } = await lector.read();
+          if (done) break;
+          pendiente = procesarEventos(pendiente + value, (nombre, evento) => {
+            if (nombre === 'estado') onEstado?.(evento.huecos);
+            if (nombre === 'cambios') onCambios?.(evento.huecos);
+          });
+        }
+      } catch (err) {
+        if (controlador.signal.aborted) return;
+        onError?.(err);
+      }
+
+      // El servidor cierra la conexión pasado un tiempo (o se corta la red): se vuelve a conectar y
+      // la nueva conexión empieza con otro evento estado
+      if (!controlador.signal.aborted) {
+        setTimeout(() => {
+          if (!controlador.signal.aborted) conectar();
+        }, REINTENTO_MS);
+      }
+    };
+
+    conectar();
+    return () => controlador.abort();
+  },
+};
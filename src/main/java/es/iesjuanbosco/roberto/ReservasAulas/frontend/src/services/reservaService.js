@@ -2,9 +2,10 @@
 import apiClient, { formatDateToDDMMYYYY } from '../utils/api';
 
 export const reservaService = {
-  // GET: Obtener todas las reservas
-  obtenerTodas: async () => {
-    const response = await apiClient.get('/reservas');
+  // GET: Obtener una página de reservas ({ reservas, siguienteCursor }).
+  // Filtros: aulaId, usuarioId, desde, hasta (dd/MM/yyyy), diaSemana; cursor y limite para la siguiente página
+  obtenerPagina: async (params = {}) => {
+    const response = await apiClient.get('/reservas', { params });
     return response.data;
   },
 
@@ -12,7 +12,7 @@ const getApiBaseUrl = () => {
   return `${protocol}//${hostname}:8080`;
 };
 
-const API_BASE_URL = getApiBaseUrl();
+export const API_BASE_URL = getApiBaseUrl();
 
 const apiClient = axios.create({
   baseURL: API_BASE_URL,
@@ -2,6 +2,7 @@ package es.iesjuanbosco.roberto.ReservasAulas.mapper;
 
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaDTO;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.ReservaHistorica;
 
 public class ReservaMapper {
     public static ReservaDTO toDto(Reserva reserva) {
@@ -36,4 +37,20 @@ public class ReservaMapper {
 
         return dto;
     }
+
+    // Las reservas archivadas se listan igual que las vigentes
+    public static Reserva fromHistorica(ReservaHistorica historica) {
+        if (historica == null) return null;
+
+        return Reserva.builder()
+                .id(historica.getId())
+                .fecha(historica.getFecha())
+                .motivo(historica.getMotivo())
+                .asistentes(historica.getAsistentes())
+                .fechaCreacion(historica.getFechaCreacion())
+                .aula(historica.getAula())
+                .horario(historica.getHorario())
+                .usuario(historica.getUsuario())
+                .build();
+    }
 }
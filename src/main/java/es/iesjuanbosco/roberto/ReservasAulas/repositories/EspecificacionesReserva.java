@@ -0,0 +1,65 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+// Filtros combinables para el listado paginado de reservas. Sirven tanto para Reserva como para ReservaHistorica,
+// que tienen los mismos atributos.
+public class EspecificacionesReserva {
+
+    // Listado con detalle, filtrado por los parámetros no nulos, a continuación del cursor si lo hay
+    public static <T> Specification<T> filtro(Long aulaId, Long usuarioId, LocalDate desde, LocalDate hasta,
+                                              DiaSemana diaSemana, CursorReserva cursor) {
+        Specification<T> filtro = conDetalle();
+        if (aulaId != null) filtro = filtro.and(deAula(aulaId));
+        if (usuarioId != null) filtro = filtro.and(deUsuario(usuarioId));
+        if (desde != null) filtro = filtro.and(desde(desde));
+        if (hasta != null) filtro = filtro.and(hasta(hasta));
+        if (diaSemana != null) filtro = filtro.and(enDia(diaSemana));
+        if (cursor != null) filtro = filtro.and(despuesDe(cursor.fecha(), cursor.id()));
+        return filtro;
+    }
+
+    // Carga aula, horario y usuario con JOIN FETCH para que mapear el listado no lance más consultas.
+    // En las consultas de recuento no se puede usar fetch.
+    public static <T> Specification<T> conDetalle() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("aula");
+                root.fetch("horario");
+                root.fetch("usuario");
+            }
+            return null;
+        };
+    }
+
+    public static <T> Specification<T> deAula(Long aulaId) {
+        return (root, query, cb) -> cb.equal(root.get("aula").get("id"), aulaId);
+    }
+
+    public static <T> Specification<T> deUsuario(Long usuarioId) {
+        return (root, query, cb) -> cb.equal(root.get("usuario").get("id"), usuarioId);
+    }
+
+    public static <T> Specification<T> desde(LocalDate fecha) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fecha"), fecha);
+    }
+
+    public static <T> Specification<T> hasta(LocalDate fecha) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("fecha"), fecha);
+    }
+
+    public static <T> Specification<T> enDia(DiaSemana diaSemana) {
+        return (root, query, cb) -> cb.equal(root.get("horario").get("diaSemana"), diaSemana);
+    }
+
+    // Paginación por clave: reservas estrictamente posteriores a (fecha, id) en orden (fecha, id)
+    public static <T> Specification<T> despuesDe(LocalDate fecha, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("fecha"), fecha),
+                cb.and(cb.equal(root.get("fecha"), fecha), cb.greaterThan(root.get("id"), id)));
+    }
+}
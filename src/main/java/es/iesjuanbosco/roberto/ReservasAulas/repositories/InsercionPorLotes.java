@@ -0,0 +1,56 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// Con ids IDENTITY Hibernate no agrupa los INSERT, así que las altas masivas van por JDBC directamente.
+// Comparte la conexión (y la transacción) del EntityManager.
+final class InsercionPorLotes {
+
+    private static final int TAMANO_LOTE = 500;
+
+    @FunctionalInterface
+    interface Parametros<T> {
+        void asignar(PreparedStatement ps, T elemento) throws SQLException;
+    }
+
+    private InsercionPorLotes() {
+    }
+
+    // Inserta los elementos en lotes de TAMANO_LOTE y asigna a cada uno el id generado
+    static <T> void insertar(JdbcTemplate jdbcTemplate, String insert, List<T> elementos,
+                             Parametros<T> parametros, BiConsumer<T, Long> asignarId) {
+        if (elementos.isEmpty()) return;
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+            try (PreparedStatement ps = conexion.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+                for (int desde = 0; desde < elementos.size(); desde += TAMANO_LOTE) {
+                    List<T> lote = elementos.subList(desde, Math.min(desde + TAMANO_LOTE, elementos.size()));
+
+                    for (T elemento : lote) {
+                        parametros.asignar(ps, elemento);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // Los ids generados llegan en el mismo orden que las filas del lote
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        for (T elemento : lote) {
+                            if (claves.next()) {
+                                asignarId.accept(elemento, claves.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
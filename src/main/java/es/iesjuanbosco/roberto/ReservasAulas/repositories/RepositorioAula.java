@@ -5,7 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
-public interface RepositorioAula extends JpaRepository<Aula, Long> {
+public interface RepositorioAula extends JpaRepository<Aula, Long>, RepositorioAulaCustom {
     List<Aula> findByCapacidad(Integer capacidad);
 
     List<Aula> findByCapacidadGreaterThanEqual(Integer capacidadIsGreaterThan);
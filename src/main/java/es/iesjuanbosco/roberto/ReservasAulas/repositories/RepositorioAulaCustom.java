@@ -0,0 +1,10 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+
+import java.util.List;
+
+public interface RepositorioAulaCustom {
+    // Inserta las aulas con lotes JDBC y asigna a cada una el id generado
+    void insertarEnLote(List<Aula> aulas);
+}
@@ -0,0 +1,25 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RepositorioAulaCustomImpl implements RepositorioAulaCustom {
+
+    private static final String INSERT_AULA = "INSERT INTO aulas (nombre, capacidad, es_ordenadores) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Aula> aulas) {
+        InsercionPorLotes.insertar(jdbcTemplate, INSERT_AULA, aulas, (ps, aula) -> {
+            ps.setString(1, aula.getNombre());
+            ps.setObject(2, aula.getCapacidad(), Types.INTEGER);
+            ps.setObject(3, aula.getEsOrdenadores(), Types.BOOLEAN);
+        }, Aula::setId);
+    }
+}
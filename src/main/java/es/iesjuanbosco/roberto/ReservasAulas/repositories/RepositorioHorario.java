@@ -3,5 +3,5 @@ package es.iesjuanbosco.roberto.ReservasAulas.repositories;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface RepositorioHorario extends JpaRepository<Horario, Long> {
+public interface RepositorioHorario extends JpaRepository<Horario, Long>, RepositorioHorarioCustom {
 }
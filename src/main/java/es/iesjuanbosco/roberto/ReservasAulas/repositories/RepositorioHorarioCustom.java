@@ -0,0 +1,10 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+
+import java.util.List;
+
+public interface RepositorioHorarioCustom {
+    // Inserta los horarios con lotes JDBC y asigna a cada uno el id generado
+    void insertarEnLote(List<Horario> horarios);
+}
@@ -0,0 +1,26 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Time;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RepositorioHorarioCustomImpl implements RepositorioHorarioCustom {
+
+    private static final String INSERT_HORARIO =
+            "INSERT INTO horarios (dia_semana, hora_inicio, hora_fin) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Horario> horarios) {
+        InsercionPorLotes.insertar(jdbcTemplate, INSERT_HORARIO, horarios, (ps, horario) -> {
+            ps.setString(1, horario.getDiaSemana().name());
+            ps.setTime(2, Time.valueOf(horario.getHoraInicio()));
+            ps.setTime(3, Time.valueOf(horario.getHoraFin()));
+        }, Horario::setId);
+    }
+}
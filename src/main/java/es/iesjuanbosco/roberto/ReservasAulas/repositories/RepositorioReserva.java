@@ -1,13 +1,33 @@
 package es.iesjuanbosco.roberto.ReservasAulas.repositories;
 
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaSemana;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface RepositorioReserva extends JpaRepository<Reserva, Long> {
+public interface RepositorioReserva extends JpaRepository<Reserva, Long>, JpaSpecificationExecutor<Reserva>,
+        RepositorioReservaCustom {
+    @Override
+    @EntityGraph("Reserva.detalle")
+    Optional<Reserva> findById(Long id);
+
+    @Override
+    @EntityGraph("Reserva.detalle")
+    List<Reserva> findAll();
+
+    @EntityGraph("Reserva.detalle")
     List<Reserva> getReservaByAula_Id(Long id);
 
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
@@ -16,4 +36,44 @@ public interface RepositorioReserva extends JpaRepository<Reserva, Long> {
            "AND r.horario.id = :horarioId " +
            "AND r.fecha = :fecha")
     boolean existsSolapamiento(Long aulaId, Long horarioId, LocalDate fecha);
+
+    // Reservas a partir de una fecha, con aula y horario ya cargados (para el índice de ocupación)
+    @Query("SELECT r FROM Reserva r " +
+           "JOIN FETCH r.aula " +
+           "JOIN FETCH r.horario " +
+           "WHERE r.fecha >= :desde")
+    List<Reserva> findDesdeFechaConHorario(LocalDate desde);
+
+    // Reservas de un aula entre dos fechas (ambas incluidas), con el horario ya cargado
+    @Query("SELECT r FROM Reserva r " +
+           "JOIN FETCH r.horario " +
+           "WHERE r.aula.id = :aulaId " +
+           "AND r.fecha BETWEEN :desde AND :hasta")
+    List<Reserva> findByAulaEnRango(Long aulaId, LocalDate desde, LocalDate hasta);
+
+    // Reservas de un aula entre dos fechas como filas planas para el cuadrante semanal: solo las columnas que se
+    // muestran, sin cargar entidades
+    @Query("SELECT new es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaSemana(" +
+           "r.id, r.fecha, r.horario.id, r.motivo, r.asistentes, u.id, u.email) " +
+           "FROM Reserva r JOIN r.usuario u " +
+           "WHERE r.aula.id = :aulaId " +
+           "AND r.fecha BETWEEN :desde AND :hasta")
+    List<ReservaSemana> findSemanaAula(Long aulaId, LocalDate desde, LocalDate hasta);
+
+    // Todas las reservas como filas planas, leídas con cursor por bloques (useCursorFetch en la URL de MySQL).
+    // Hay que consumir el Stream dentro de una transacción y cerrarlo al terminar.
+    @Query("SELECT new es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion(" +
+           "r.id, r.fecha, r.motivo, r.asistentes, r.fechaCreacion, " +
+           "a.id, a.nombre, h.id, h.diaSemana, h.horaInicio, h.horaFin, u.id, u.email) " +
+           "FROM Reserva r JOIN r.aula a JOIN r.horario h JOIN r.usuario u " +
+           "ORDER BY r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ReservaExportacion> streamExportacion();
+
+    // Reservas por (aula, horario, mes), agregadas en la base de datos: una fila por grupo, no por reserva
+    @Query("SELECT new es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas(" +
+           "r.aula.id, r.horario.id, YEAR(r.fecha), MONTH(r.fecha), COUNT(r)) " +
+           "FROM Reserva r " +
+           "GROUP BY r.aula.id, r.horario.id, YEAR(r.fecha), MONTH(r.fecha)")
+    List<ConteoReservas> contarPorAulaHorarioYMes();
 }
@@ -0,0 +1,15 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RepositorioReservaCustom {
+    // Inserta las reservas con lotes JDBC y asigna a cada una el id generado
+    void insertarEnLote(List<Reserva> reservas);
+
+    // Mueve a reservas_historico hasta maximo reservas con fecha anterior a antesDe, las más antiguas primero.
+    // Devuelve el aula de cada reserva movida. Debe llamarse dentro de una transacción.
+    List<Long> archivarAnterioresA(LocalDate antesDe, int maximo);
+}
@@ -0,0 +1,59 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+// El alta masiva va por JDBC (ver InsercionPorLotes) y el archivo, con INSERT ... SELECT sin pasar por entidades
+@RequiredArgsConstructor
+public class RepositorioReservaCustomImpl implements RepositorioReservaCustom {
+
+    private static final String INSERT_RESERVA =
+            "INSERT INTO reservas (fecha, motivo, asistentes, fecha_creacion, aula_id, horario_id, usuario_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNAS_RESERVA =
+            "id, fecha, motivo, asistentes, fecha_creacion, aula_id, horario_id, usuario_id";
+
+    // FOR UPDATE: una modificación concurrente de estas reservas espera a que terminen de moverse
+    private static final String SELECT_ARCHIVABLES =
+            "SELECT id, aula_id FROM reservas WHERE fecha < ? ORDER BY fecha, id LIMIT ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertarEnLote(List<Reserva> reservas) {
+        InsercionPorLotes.insertar(jdbcTemplate, INSERT_RESERVA, reservas, (ps, reserva) -> {
+            if (reserva.getFechaCreacion() == null) {
+                reserva.setFechaCreacion(LocalDate.now());
+            }
+            ps.setDate(1, Date.valueOf(reserva.getFecha()));
+            ps.setString(2, reserva.getMotivo());
+            ps.setInt(3, reserva.getAsistentes());
+            ps.setDate(4, Date.valueOf(reserva.getFechaCreacion()));
+            ps.setLong(5, reserva.getAula().getId());
+            ps.setLong(6, reserva.getHorario().getId());
+            ps.setLong(7, reserva.getUsuario().getId());
+        }, Reserva::setId);
+    }
+
+    @Override
+    public List<Long> archivarAnterioresA(LocalDate antesDe, int maximo) {
+        List<long[]> filas = jdbcTemplate.query(SELECT_ARCHIVABLES,
+                (rs, fila) -> new long[]{rs.getLong(1), rs.getLong(2)}, Date.valueOf(antesDe), maximo);
+        if (filas.isEmpty()) return List.of();
+
+        Object[] ids = filas.stream().map(fila -> fila[0]).toArray();
+        String marcas = String.join(",", Collections.nCopies(ids.length, "?"));
+        jdbcTemplate.update("INSERT INTO reservas_historico (" + COLUMNAS_RESERVA + ") SELECT " + COLUMNAS_RESERVA +
+                " FROM reservas WHERE id IN (" + marcas + ")", ids);
+        jdbcTemplate.update("DELETE FROM reservas WHERE id IN (" + marcas + ")", ids);
+
+        return filas.stream().map(fila -> fila[1]).toList();
+    }
+}
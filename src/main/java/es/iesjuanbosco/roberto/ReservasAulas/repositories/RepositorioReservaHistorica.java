@@ -0,0 +1,35 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.ReservaHistorica;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Las reservas se archivan con RepositorioReserva.archivarAnterioresA; aquí solo se leen
+public interface RepositorioReservaHistorica extends JpaRepository<ReservaHistorica, Long>,
+        JpaSpecificationExecutor<ReservaHistorica> {
+
+    // Igual que RepositorioReserva.contarPorAulaHorarioYMes, para que las estadísticas incluyan el histórico
+    @Query("SELECT new es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas(" +
+           "r.aula.id, r.horario.id, YEAR(r.fecha), MONTH(r.fecha), COUNT(r)) " +
+           "FROM ReservaHistorica r " +
+           "GROUP BY r.aula.id, r.horario.id, YEAR(r.fecha), MONTH(r.fecha)")
+    List<ConteoReservas> contarPorAulaHorarioYMes();
+
+    // Igual que RepositorioReserva.streamExportacion
+    @Query("SELECT new es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion(" +
+           "r.id, r.fecha, r.motivo, r.asistentes, r.fechaCreacion, " +
+           "a.id, a.nombre, h.id, h.diaSemana, h.horaInicio, h.horaFin, u.id, u.email) " +
+           "FROM ReservaHistorica r JOIN r.aula a JOIN r.horario h JOIN r.usuario u " +
+           "ORDER BY r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ReservaExportacion> streamExportacion();
+}
@@ -0,0 +1,66 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.OptionalInt;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tarea que mueve a reservas_historico las reservas con más de {@code reservas.archivo.dias} días de antigüedad,
+ * para que la tabla reservas (y con ella existsSolapamiento, los listados y sus índices) no crezca con cada curso.
+ * <p>
+ * Se ejecuta cada noche según {@code reservas.archivo.cron} ({@code -} la desactiva) o a petición con
+ * POST /reservas/historico/archivar. Cada lote de {@code reservas.archivo.lote} reservas es una transacción
+ * corta, así que no bloquea la tabla mientras dura el archivo completo.
+ * <p>
+ * Solo se archiva de uno en uno: si llega otra ejecución mientras hay una en curso, no espera, se omite.
+ */
+@Slf4j
+@Component
+public class ArchivoReservas {
+
+    private final ServiceHistorico serviceHistorico;
+    private final int dias;
+    private final int lote;
+
+    // ReentrantLock y no synchronized: en el perfil virtual no fija el hilo portador durante todos los lotes
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    public ArchivoReservas(ServiceHistorico serviceHistorico,
+                           @Value("${reservas.archivo.dias:365}") int dias,
+                           @Value("${reservas.archivo.lote:1000}") int lote) {
+        this.serviceHistorico = serviceHistorico;
+        this.dias = Math.max(dias, 0);
+        this.lote = Math.max(lote, 1);
+    }
+
+    // Devuelve las reservas archivadas, o vacío si ya había otro archivado en curso
+    @Scheduled(cron = "${reservas.archivo.cron:0 30 3 * * *}")
+    public OptionalInt archivar() {
+        if (!enCurso.tryLock()) {
+            log.info("Ya hay un archivado de reservas en curso; se omite esta ejecución");
+            return OptionalInt.empty();
+        }
+        try {
+            LocalDate antesDe = LocalDate.now().minusDays(dias);
+            long inicio = System.currentTimeMillis();
+
+            int total = 0;
+            int movidas;
+            do {
+                movidas = serviceHistorico.archivarLote(antesDe, lote);
+                total += movidas;
+            } while (movidas == lote);
+
+            log.info("Archivadas {} reservas anteriores al {} en {} ms", total, antesDe,
+                    System.currentTimeMillis() - inicio);
+            return OptionalInt.of(total);
+        } finally {
+            enCurso.unlock();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.EventoOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.HuecoOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flujo de eventos (SSE) con la ocupación de una fecha, para que la vista de un día no tenga que consultar las
+ * reservas de cada aula una y otra vez. Cada cliente recibe primero la foto de los huecos ocupados ({@code estado})
+ * y después solo los huecos que cambian ({@code cambios}).
+ * <p>
+ * Hay un publicador por fecha compartido por todos sus clientes. ServiceReserva marca los huecos que toca una
+ * transacción al terminar esta; cada {@code reservas.difusion.intervalo-ms} un único hilo recoge los huecos
+ * marcados de cada fecha, lee su estado actual en {@link IndiceOcupacion} y envía el mismo evento, serializado una
+ * sola vez, a todos los clientes. Varios cambios del mismo hueco en ese intervalo salen como uno solo, y como todos
+ * los envíos los hace ese hilo, la foto de un cliente siempre llega antes que sus cambios.
+ * <p>
+ * Solo se pueden seguir fechas de hoy en adelante, que son las que cubre el índice de ocupación.
+ */
+@Slf4j
+@Component
+public class DifusionOcupacion {
+
+    // Comentario periódico para que proxies y balanceadores no cierren las conexiones inactivas
+    private static final Duration LATIDO = Duration.ofSeconds(20);
+
+    private final IndiceOcupacion indiceOcupacion;
+    private final ServiceHorario serviceHorario;
+    private final ObjectMapper objectMapper;
+    private final long tiempoMaximo;
+    private final ScheduledExecutorService planificador;
+
+    private final Map<LocalDate, Publicador> publicadores = new ConcurrentHashMap<>();
+
+    record Hueco(Long aulaId, Long horarioId) {}
+
+    public DifusionOcupacion(IndiceOcupacion indiceOcupacion, ServiceHorario serviceHorario, ObjectMapper objectMapper,
+                             @Value("${reservas.difusion.intervalo-ms:250}") long intervalo,
+                             @Value("${reservas.difusion.tiempo-maximo-minutos:30}") long minutos) {
+        this.indiceOcupacion = indiceOcupacion;
+        this.serviceHorario = serviceHorario;
+        this.objectMapper = objectMapper;
+        this.tiempoMaximo = Duration.ofMinutes(minutos).toMillis();
+        this.planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "difusion-ocupacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.scheduleWithFixedDelay(this::publicar, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        planificador.scheduleWithFixedDelay(this::latido, LATIDO.toMillis(), LATIDO.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter suscribir(LocalDate fecha) {
+        if (fecha.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Solo se puede seguir la ocupación de hoy en adelante.");
+        }
+
+        SseEmitter cliente = new SseEmitter(tiempoMaximo);
+        Runnable quitar = () -> {
+            Publicador publicador = publicadores.get(fecha);
+            if (publicador != null) publicador.quitar(cliente);
+        };
+        cliente.onCompletion(quitar);
+        cliente.onTimeout(quitar);
+        cliente.onError(error -> quitar.run());
+
+        publicadores.compute(fecha, (f, publicador) -> {
+            Publicador resultado = publicador != null ? publicador : new Publicador();
+            resultado.nuevos.add(cliente);
+            return resultado;
+        });
+        return cliente;
+    }
+
+    public int clientes() {
+        return publicadores.values().stream().mapToInt(p -> p.clientes.size() + p.nuevos.size()).sum();
+    }
+
+    public void huecoCambiado(Reserva reserva) {
+        huecoCambiado(reserva.getFecha(), reserva.getAula().getId(), reserva.getHorario().getId());
+    }
+
+    // Debe llamarse después de ocupar o liberar el hueco en el índice, para que la marca se procese después de
+    // que el índice aplique el resultado de la transacción
+    public void huecoCambiado(LocalDate fecha, Long aulaId, Long horarioId) {
+        Hueco hueco = new Hueco(aulaId, horarioId);
+
+        // Al terminar la transacción, confirmada o no: si se deshace, el hueco ocupado provisionalmente en el
+        // índice vuelve a quedar libre y los clientes que ya lo vieron ocupado deben saberlo
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    marcar(fecha, hueco);
+                }
+            });
+        } else {
+            marcar(fecha, hueco);
+        }
+    }
+
+    private void marcar(LocalDate fecha, Hueco hueco) {
+        Publicador publicador = publicadores.get(fecha);
+        if (publicador != null) {
+            publicador.pendientes.add(hueco);
+        }
+    }
+
+    // Se ejecuta en el hilo del planificador; los tests lo llaman directamente para no depender del intervalo
+    void publicar() {
+        try {
+            publicadores.forEach((fecha, publicador) -> {
+                publicador.publicarCambios(fecha);
+                publicador.enviarFotos(fecha);
+            });
+            // Las fechas sin clientes dejan de publicarse (compute y computeIfPresent son atómicos por fecha)
+            publicadores.keySet().forEach(fecha ->
+                    publicadores.computeIfPresent(fecha, (f, publicador) -> publicador.vacio() ? null : publicador));
+        } catch (RuntimeException e) {
+            log.warn("Error al publicar la ocupación", e);
+        }
+    }
+
+    private void latido() {
+        Set<ResponseBodyEmitter.DataWithMediaType> comentario = SseEmitter.event().comment("latido").build();
+        publicadores.values().forEach(publicador -> publicador.clientes.forEach(c -> publicador.enviar(c, comentario)));
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> evento(String nombre, LocalDate fecha,
+                                                              List<HuecoOcupacion> huecos) {
+        try {
+            String datos = objectMapper.writeValueAsString(new EventoOcupacion(fecha, huecos));
+            return SseEmitter.event().name(nombre).data(datos).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        planificador.shutdownNow();
+        publicadores.values().forEach(publicador -> {
+            publicador.clientes.forEach(SseEmitter::complete);
+            publicador.nuevos.forEach(SseEmitter::complete);
+        });
+    }
+
+    private final class Publicador {
+
+        // Huecos marcados desde la última publicación
+        private final Set<Hueco> pendientes = ConcurrentHashMap.newKeySet();
+
+        // Clientes que aún no han recibido la foto inicial, y clientes que ya la tienen
+        private final Queue<SseEmitter> nuevos = new ConcurrentLinkedQueue<>();
+        private final Queue<SseEmitter> clientes = new ConcurrentLinkedQueue<>();
+
+        void publicarCambios(LocalDate fecha) {
+            if (pendientes.isEmpty()) return;
+
+            List<HuecoOcupacion> cambios = new ArrayList<>();
+            for (Hueco hueco : pendientes) {
+                pendientes.remove(hueco);
+                boolean ocupada = indiceOcupacion.aulasOcupadas(fecha, List.of(hueco.horarioId()))
+                        .get(Math.toIntExact(hueco.aulaId()));
+                cambios.add(new HuecoOcupacion(hueco.aulaId(), hueco.horarioId(), ocupada));
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> evento = evento("cambios", fecha, cambios);
+            clientes.forEach(cliente -> enviar(cliente, evento));
+        }
+
+        // La foto se lee después de consumir los pendientes, así que ya incluye esos cambios
+        void enviarFotos(LocalDate fecha) {
+            if (nuevos.isEmpty()) return;
+
+            List<HuecoOcupacion> ocupados = new ArrayList<>();
+            for (Horario horario : serviceHorario.obtenerTodas()) {
+                BitSet aulas = indiceOcupacion.aulasOcupadas(fecha, List.of(horario.getId()));
+                aulas.stream().forEach(aula -> ocupados.add(new HuecoOcupacion((long) aula, horario.getId(), true)));
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> foto = evento("estado", fecha, ocupados);
+
+            for (SseEmitter cliente = nuevos.poll(); cliente != null; cliente = nuevos.poll()) {
+                if (enviar(cliente, foto)) {
+                    clientes.add(cliente);
+                }
+            }
+        }
+
+        // Todos los clientes reciben el mismo evento ya serializado; uno que ya no está se descarta
+        boolean enviar(SseEmitter cliente, Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+            try {
+                cliente.send(evento);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                quitar(cliente);
+                return false;
+            }
+        }
+
+        void quitar(SseEmitter cliente) {
+            nuevos.remove(cliente);
+            clientes.remove(cliente);
+        }
+
+        boolean vacio() {
+            return nuevos.isEmpty() && clientes.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.config.TrasConfirmar;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.EstadisticasOcupacionDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionAulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionFranjaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionMesDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionTotalMesDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReservaHistorica;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ocupación acumulada de las aulas: número de reservas por (aula, horario) y por (aula, mes). Se reconstruye al
+ * arrancar con una consulta agregada y después ServiceReserva la mantiene sumando y restando cada reserva que se
+ * crea, modifica o borra, así que consultarla no depende del tamaño del historial. Los totales por aula y por mes
+ * se mantienen a la vez que el resto, y los contadores se agrupan por aula para que filtrar por una o quitarla no
+ * recorra las demás. Las reservas archivadas en
+ * reservas_historico siguen contando: archivarlas no cambia los contadores.
+ * <p>
+ * Los cambios de una transacción se aplican al confirmarla. Para que una reconstrucción no cuente dos veces (o
+ * ninguna) una reserva que se confirma mientras se ejecuta la consulta, cada transacción que modifica reservas
+ * retiene el cerrojo de lectura durante su commit y la reconstrucción toma el de escritura.
+ * <p>
+ * Los contadores están en memoria: con varias instancias de la API cada una solo ve sus propios cambios hasta
+ * que se reconstruye.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EstadisticasOcupacion {
+
+    private final RepositorioReserva repository;
+    private final RepositorioReservaHistorica historico;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    // Se sustituyen enteros al reconstruir
+    private volatile Contadores contadores = new Contadores();
+
+    // El día de la semana no forma parte de las claves: se toma del horario al consultar, así que modificar un
+    // horario no obliga a mover contadores
+    private static final class Contadores {
+        // aula -> (horario -> reservas) y aula -> (mes -> reservas)
+        final Map<Long, Map<Long, LongAdder>> porFranja = new ConcurrentHashMap<>();
+        final Map<Long, Map<YearMonth, LongAdder>> porMes = new ConcurrentHashMap<>();
+        // aula -> reservas y mes -> reservas de todas las aulas
+        final Map<Long, LongAdder> totalPorAula = new ConcurrentHashMap<>();
+        final Map<YearMonth, LongAdder> totalPorMes = new ConcurrentHashMap<>();
+
+        void anotar(Long aulaId, Long horarioId, YearMonth mes, long cambio) {
+            porFranja.computeIfAbsent(aulaId, a -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(horarioId, h -> new LongAdder()).add(cambio);
+            porMes.computeIfAbsent(aulaId, a -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(mes, m -> new LongAdder()).add(cambio);
+            totalPorAula.computeIfAbsent(aulaId, a -> new LongAdder()).add(cambio);
+            totalPorMes.computeIfAbsent(mes, m -> new LongAdder()).add(cambio);
+        }
+
+        void quitarAula(Long aulaId) {
+            porFranja.remove(aulaId);
+            totalPorAula.remove(aulaId);
+            Map<YearMonth, LongAdder> meses = porMes.remove(aulaId);
+            if (meses != null) {
+                meses.forEach((mes, reservas) ->
+                        totalPorMes.computeIfAbsent(mes, m -> new LongAdder()).add(-reservas.sum()));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        cerrojo.writeLock().lock();
+        try {
+            Contadores nuevos = new Contadores();
+            long total = 0;
+            List<ConteoReservas> conteos = new ArrayList<>(repository.contarPorAulaHorarioYMes());
+            conteos.addAll(historico.contarPorAulaHorarioYMes());
+            for (ConteoReservas conteo : conteos) {
+                nuevos.anotar(conteo.aulaId(), conteo.horarioId(), YearMonth.of(conteo.anio(), conteo.mes()),
+                        conteo.reservas());
+                total += conteo.reservas();
+            }
+            contadores = nuevos;
+            log.info("Estadísticas de ocupación reconstruidas con {} reservas", total);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    // Debe llamarse con los datos de la reserva ya guardada (alta) o antes de modificarla (baja o cambio)
+    public void sumar(Reserva reserva) {
+        anotar(reserva.getAula().getId(), reserva.getHorario().getId(), reserva.getFecha(), 1);
+    }
+
+    public void restar(Reserva reserva) {
+        anotar(reserva.getAula().getId(), reserva.getHorario().getId(), reserva.getFecha(), -1);
+    }
+
+    // Al borrar un aula se borran en cascada sus reservas, también las archivadas. Si el borrado se deshace, el aula
+    // conserva sus contadores
+    public void quitarAula(Long aulaId) {
+        TrasConfirmar.ejecutar(() -> contadores.quitarAula(aulaId));
+    }
+
+    // Resumen con los nombres y horas del catálogo actual; las aulas y horarios que ya no existen no aparecen.
+    // Los huecos de un mes son las veces que cada horario cae en ese mes (su día de la semana), y se calculan una vez
+    // por mes. Solo se recorren los contadores de las aulas consultadas, sin sumar reservas.
+    public EstadisticasOcupacionDTO resumen(List<Aula> aulas, List<Horario> horarios, Long aulaId) {
+        Contadores leidos = contadores;
+        List<Aula> consultadas = aulaId == null ? aulas
+                : aulas.stream().filter(aula -> aula.getId().equals(aulaId)).toList();
+        Map<Long, Horario> horariosPorId = horarios.stream()
+                .collect(Collectors.toMap(Horario::getId, Function.identity()));
+        Map<YearMonth, Long> huecosPorMes = new HashMap<>();
+
+        List<OcupacionFranjaDTO> franjas = new ArrayList<>();
+        List<OcupacionMesDTO> meses = new ArrayList<>();
+        List<OcupacionAulaDTO> totalPorAula = new ArrayList<>();
+        for (Aula aula : consultadas) {
+            leidos.porFranja.getOrDefault(aula.getId(), Map.of()).forEach((horarioId, reservas) -> {
+                Horario horario = horariosPorId.get(horarioId);
+                long total = reservas.sum();
+                if (horario == null || total <= 0) return;
+
+                franjas.add(new OcupacionFranjaDTO(aula.getId(), aula.getNombre(), horario.getDiaSemana().toString(),
+                        horario.getId(), horario.getHoraInicio().toString(), horario.getHoraFin().toString(), total));
+            });
+
+            leidos.porMes.getOrDefault(aula.getId(), Map.of()).forEach((mes, reservas) -> {
+                long total = reservas.sum();
+                if (total <= 0) return;
+
+                long huecos = huecosPorMes.computeIfAbsent(mes, m -> huecos(m, horarios));
+                meses.add(new OcupacionMesDTO(aula.getId(), aula.getNombre(), mes.toString(), total, huecos,
+                        porcentaje(total, huecos)));
+            });
+
+            long total = suma(leidos.totalPorAula.get(aula.getId()));
+            if (total > 0) {
+                totalPorAula.add(new OcupacionAulaDTO(aula.getId(), aula.getNombre(), total));
+            }
+        }
+        franjas.sort(Comparator.comparing(OcupacionFranjaDTO::getAulaId)
+                .thenComparing(franja -> horariosPorId.get(franja.getHorarioId()).getDiaSemana())
+                .thenComparing(OcupacionFranjaDTO::getHoraInicio));
+        meses.sort(Comparator.comparing(OcupacionMesDTO::getAulaId).thenComparing(OcupacionMesDTO::getMes));
+        totalPorAula.sort(Comparator.comparing(OcupacionAulaDTO::getAulaId));
+
+        // Sin filtro, los totales por mes ya están sumados; con un aula, son sus propios meses
+        Stream<Map.Entry<YearMonth, LongAdder>> totalesMes = aulaId == null
+                ? leidos.totalPorMes.entrySet().stream()
+                : leidos.porMes.getOrDefault(aulaId, Map.of()).entrySet().stream();
+        List<OcupacionTotalMesDTO> totalPorMes = totalesMes
+                .filter(total -> total.getValue().sum() > 0)
+                .map(total -> {
+                    long reservas = total.getValue().sum();
+                    long huecos = huecosPorMes.computeIfAbsent(total.getKey(), m -> huecos(m, horarios))
+                            * consultadas.size();
+                    return new OcupacionTotalMesDTO(total.getKey().toString(), reservas, huecos,
+                            porcentaje(reservas, huecos));
+                })
+                .sorted(Comparator.comparing(OcupacionTotalMesDTO::getMes))
+                .toList();
+
+        return new EstadisticasOcupacionDTO(franjas, meses, totalPorAula, totalPorMes);
+    }
+
+    private static long suma(LongAdder contador) {
+        return contador == null ? 0 : contador.sum();
+    }
+
+    private static double porcentaje(long reservas, long huecos) {
+        return huecos == 0 ? 0 : Math.round(reservas * 1000.0 / huecos) / 10.0;
+    }
+
+    private static long huecos(YearMonth mes, List<Horario> horarios) {
+        Map<DayOfWeek, Integer> dias = new EnumMap<>(DayOfWeek.class);
+        for (LocalDate dia = mes.atDay(1); !dia.isAfter(mes.atEndOfMonth()); dia = dia.plusDays(1)) {
+            dias.merge(dia.getDayOfWeek(), 1, Integer::sum);
+        }
+        return horarios.stream().mapToLong(horario -> dias.get(horario.getDiaSemana().toDayOfWeek())).sum();
+    }
+
+    private void anotar(Long aulaId, Long horarioId, LocalDate fecha, int cambio) {
+        YearMonth mes = YearMonth.from(fecha);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cerrojo.readLock().lock();
+            try {
+                contadores.anotar(aulaId, horarioId, mes, cambio);
+            } finally {
+                cerrojo.readLock().unlock();
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean bloqueado;
+
+            @Override
+            public void beforeCommit(boolean soloLectura) {
+                cerrojo.readLock().lock();
+                bloqueado = true;
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                try {
+                    if (estado == STATUS_COMMITTED) {
+                        contadores.anotar(aulaId, horarioId, mes, cambio);
+                    }
+                } finally {
+                    if (bloqueado) {
+                        cerrojo.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+}
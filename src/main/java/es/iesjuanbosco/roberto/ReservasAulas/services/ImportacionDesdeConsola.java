@@ -0,0 +1,79 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ErrorImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoImportacion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Importación desde la línea de comandos, sin pasar por la API (el puerto 0 evita chocar con una API en marcha):
+//   java -jar app.jar --server.port=0
+//        --importar-aulas=aulas.csv --importar-horarios=horarios.csv --importar-reservas=reservas.csv
+// Importa los ficheros indicados en ese orden (así las reservas ya ven las aulas y horarios nuevos) y termina
+// con código 1 si alguna fila se ha rechazado. Sin estas opciones la aplicación arranca con normalidad.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportacionDesdeConsola implements ApplicationRunner {
+
+    private final ServiceImportacion serviceImportacion;
+    private final IndiceOcupacion indiceOcupacion;
+    private final ConfigurableApplicationContext contexto;
+
+    @Override
+    public void run(ApplicationArguments argumentos) throws IOException {
+        String aulas = opcion(argumentos, "importar-aulas");
+        String horarios = opcion(argumentos, "importar-horarios");
+        String reservas = opcion(argumentos, "importar-reservas");
+        if (aulas == null && horarios == null && reservas == null) return;
+
+        boolean rechazadas = false;
+        if (aulas != null) {
+            rechazadas |= importar(aulas, serviceImportacion::importarAulas);
+        }
+        if (horarios != null) {
+            rechazadas |= importar(horarios, serviceImportacion::importarHorarios);
+        }
+        if (reservas != null) {
+            // Los runners se ejecutan antes de ApplicationReadyEvent: el índice de ocupación aún no está cargado
+            indiceOcupacion.reconstruir();
+            rechazadas |= importar(reservas, serviceImportacion::importarReservas);
+        }
+
+        int codigo = rechazadas ? 1 : 0;
+        System.exit(SpringApplication.exit(contexto, () -> codigo));
+    }
+
+    private interface Importacion {
+        ResultadoImportacion ejecutar(InputStream entrada) throws IOException;
+    }
+
+    private boolean importar(String fichero, Importacion importacion) throws IOException {
+        ResultadoImportacion resultado;
+        try (InputStream entrada = Files.newInputStream(Path.of(fichero))) {
+            resultado = importacion.ejecutar(entrada);
+        }
+
+        for (ErrorImportacion error : resultado.getErrores()) {
+            log.warn("{}, línea {}: {}", fichero, error.linea(), error.mensaje());
+        }
+        if (resultado.getRechazadas() > resultado.getErrores().size()) {
+            log.warn("{}: {} filas rechazadas más sin detalle", fichero,
+                    resultado.getRechazadas() - resultado.getErrores().size());
+        }
+        return resultado.getRechazadas() > 0;
+    }
+
+    private static String opcion(ApplicationArguments argumentos, String nombre) {
+        return argumentos.containsOption(nombre) ? argumentos.getOptionValues(nombre).get(0) : null;
+    }
+}
@@ -0,0 +1,246 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.config.TrasConfirmar;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de la ocupación de las aulas agrupado por (aula, fecha).
+ * Permite comprobar solapamientos sin recorrer todo el historial de reservas del aula.
+ * <p>
+ * Las altas y modificaciones ocupan el hueco con {@link #ocupar} antes de escribir en la base de datos:
+ * la comprobación y la ocupación son atómicas por (aula, fecha), así que dos peticiones simultáneas
+ * sobre el mismo hueco no pueden pasar ambas. El hueco se libera si la transacción se deshace.
+ * <p>
+ * Solo ve las reservas de esta instancia: la comprobación de solapamientos vale con una única instancia de la API.
+ * <p>
+ * Los compute de ConcurrentHashMap bloquean con synchronized, así que dentro de ellos solo se trabaja en memoria
+ * (nunca base de datos ni E/S): con hilos virtuales el bloqueo dura microsegundos y no retiene al hilo portador.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceOcupacion {
+
+    private final RepositorioReserva repository;
+
+    // (aula, fecha) -> (id de reserva -> horario que ocupa)
+    private final Map<Clave, Map<Long, Horario>> ocupacion = new ConcurrentHashMap<>();
+
+    // id de reserva -> clave en la que está indexada (para moverla o quitarla sin buscar)
+    private final Map<Long, Clave> clavesPorReserva = new ConcurrentHashMap<>();
+
+    // (fecha, horario) -> aulas con una reserva en ese horario exacto (bit = id del aula).
+    // Los BitSet no se modifican una vez publicados: cada cambio crea una copia.
+    private final Map<ClaveFranja, BitSet> aulasOcupadas = new ConcurrentHashMap<>();
+
+    // Las ocupaciones provisionales usan ids negativos hasta que la reserva tiene id real
+    private final AtomicLong idsProvisionales = new AtomicLong();
+
+    record Clave(Long aulaId, LocalDate fecha) {}
+
+    record ClaveFranja(LocalDate fecha, Long horarioId) {}
+
+    // Se carga al arrancar con las reservas de hoy en adelante (las pasadas ya no se pueden solapar)
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        ocupacion.clear();
+        clavesPorReserva.clear();
+        aulasOcupadas.clear();
+
+        List<Reserva> reservas = repository.findDesdeFechaConHorario(LocalDate.now());
+        for (Reserva reserva : reservas) {
+            indexar(reserva.getId(), reserva.getAula().getId(), reserva.getFecha(), copiar(reserva.getHorario()));
+        }
+
+        log.info("Índice de ocupación reconstruido con {} reservas", reservas.size());
+    }
+
+    // Cada noche se descartan los días que ya han pasado, para que el índice no crezca sin límite mientras la
+    // aplicación sigue en marcha (al arrancar ya se cargan solo los de hoy en adelante)
+    @Scheduled(cron = "${reservas.indice.cron:0 5 0 * * *}")
+    public void descartarDiasPasados() {
+        descartarAnteriores(LocalDate.now());
+    }
+
+    void descartarAnteriores(LocalDate fecha) {
+        ocupacion.keySet().removeIf(clave -> clave.fecha().isBefore(fecha));
+        clavesPorReserva.values().removeIf(clave -> clave.fecha().isBefore(fecha));
+        aulasOcupadas.keySet().removeIf(franja -> franja.fecha().isBefore(fecha));
+    }
+
+    // Aulas ocupadas en una fecha en alguno de los horarios indicados
+    public BitSet aulasOcupadas(LocalDate fecha, Collection<Long> horarioIds) {
+        BitSet ocupadas = new BitSet();
+        for (Long horarioId : horarioIds) {
+            BitSet aulas = aulasOcupadas.get(new ClaveFranja(fecha, horarioId));
+            if (aulas != null) {
+                ocupadas.or(aulas);
+            }
+        }
+        return ocupadas;
+    }
+
+    // Comprueba que el hueco está libre y lo ocupa en la misma operación. Debe llamarse dentro de la
+    // transacción que guarda la reserva y completarse con confirmar() una vez guardada.
+    public Ocupacion ocupar(Long aulaId, LocalDate fecha, Horario horario, Long reservaIgnorada) {
+        Ocupacion hueco = new Ocupacion(-idsProvisionales.incrementAndGet(), new Clave(aulaId, fecha),
+                copiar(horario), reservaIgnorada);
+
+        ocupacion.compute(hueco.clave, (c, ocupadas) -> {
+            Map<Long, Horario> resultado = ocupadas != null ? ocupadas : new ConcurrentHashMap<>();
+            for (Map.Entry<Long, Horario> entrada : resultado.entrySet()) {
+                // ignorar la misma reserva (en caso de actualización)
+                if (entrada.getKey().equals(reservaIgnorada)) continue;
+
+                if (hueco.horario.seSolapaCon(entrada.getValue())) {
+                    throw new ConflictoReservaException(
+                            "La reserva se solapa con otra reserva existente en el mismo aula y horario.");
+                }
+            }
+            resultado.put(hueco.idProvisional, hueco.horario);
+            marcarAula(new ClaveFranja(fecha, hueco.horario.getId()), aulaId, true);
+            return resultado;
+        });
+        clavesPorReserva.put(hueco.idProvisional, hueco.clave);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED && hueco.reservaId != null) {
+                        consolidar(hueco);
+                    } else {
+                        desindexar(hueco.idProvisional);
+                    }
+                }
+            });
+        }
+        return hueco;
+    }
+
+    // Asocia el hueco ocupado a la reserva ya guardada; se hace efectivo al confirmar la transacción
+    public void confirmar(Ocupacion hueco, Reserva guardada) {
+        hueco.reservaId = guardada.getId();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consolidar(hueco);
+        }
+    }
+
+    public void quitar(Long reservaId) {
+        TrasConfirmar.ejecutar(() -> desindexar(reservaId));
+    }
+
+    // Al borrar un aula se borran en cascada sus reservas
+    public void quitarAula(Long aulaId) {
+        TrasConfirmar.ejecutar(() -> {
+            ocupacion.keySet().removeIf(clave -> clave.aulaId().equals(aulaId));
+            clavesPorReserva.values().removeIf(clave -> clave.aulaId().equals(aulaId));
+            aulasOcupadas.keySet().forEach(franja -> marcarAula(franja, aulaId, false));
+        });
+    }
+
+    // Si se modifica un horario, las reservas indexadas con él deben ver las nuevas horas
+    public void actualizarHorario(Horario horario) {
+        Horario copia = copiar(horario);
+
+        TrasConfirmar.ejecutar(() -> ocupacion.values().forEach(ocupadas ->
+                ocupadas.replaceAll((id, h) -> h.getId().equals(copia.getId()) ? copia : h)));
+    }
+
+    // Los cambios de una misma (aula, fecha) se serializan dentro de compute, así el BitSet de la franja
+    // siempre coincide con las reservas indexadas
+    private void indexar(Long reservaId, Long aulaId, LocalDate fecha, Horario horario) {
+        Clave clave = new Clave(aulaId, fecha);
+        ocupacion.compute(clave, (c, ocupadas) -> {
+            Map<Long, Horario> resultado = ocupadas != null ? ocupadas : new ConcurrentHashMap<>();
+            resultado.put(reservaId, horario);
+            marcarAula(new ClaveFranja(fecha, horario.getId()), aulaId, true);
+            return resultado;
+        });
+        clavesPorReserva.put(reservaId, clave);
+    }
+
+    // Sustituye la ocupación provisional por el id real de la reserva. En una modificación, primero se
+    // libera la posición anterior de la reserva.
+    private void consolidar(Ocupacion hueco) {
+        if (hueco.reservaSustituida != null) {
+            desindexar(hueco.reservaSustituida);
+        }
+
+        ocupacion.computeIfPresent(hueco.clave, (c, ocupadas) -> {
+            if (ocupadas.remove(hueco.idProvisional) != null) {
+                ocupadas.put(hueco.reservaId, hueco.horario);
+            }
+            return ocupadas;
+        });
+        clavesPorReserva.remove(hueco.idProvisional);
+        clavesPorReserva.put(hueco.reservaId, hueco.clave);
+    }
+
+    private void desindexar(Long reservaId) {
+        Clave clave = clavesPorReserva.remove(reservaId);
+        if (clave == null) return;
+
+        ocupacion.computeIfPresent(clave, (c, ocupadas) -> {
+            Horario horario = ocupadas.remove(reservaId);
+            // Solo se libera el aula si no queda otra reserva suya en ese mismo horario
+            if (horario != null && ocupadas.values().stream().noneMatch(h -> h.getId().equals(horario.getId()))) {
+                marcarAula(new ClaveFranja(c.fecha(), horario.getId()), c.aulaId(), false);
+            }
+            return ocupadas.isEmpty() ? null : ocupadas;
+        });
+    }
+
+    private void marcarAula(ClaveFranja franja, Long aulaId, boolean ocupada) {
+        aulasOcupadas.compute(franja, (f, aulas) -> {
+            BitSet copia = aulas != null ? (BitSet) aulas.clone() : new BitSet();
+            copia.set(Math.toIntExact(aulaId), ocupada);
+            return copia.isEmpty() ? null : copia;
+        });
+    }
+
+    // Copia de los datos que usa seSolapaCon, para no retener entidades gestionadas por JPA
+    private static Horario copiar(Horario horario) {
+        return Horario.builder()
+                .id(horario.getId())
+                .diaSemana(horario.getDiaSemana())
+                .horaInicio(horario.getHoraInicio())
+                .horaFin(horario.getHoraFin())
+                .build();
+    }
+
+    public static final class Ocupacion {
+        private final Long idProvisional;
+        private final Clave clave;
+        private final Horario horario;
+        private final Long reservaSustituida;
+        private volatile Long reservaId;
+
+        private Ocupacion(Long idProvisional, Clave clave, Horario horario, Long reservaSustituida) {
+            this.idProvisional = idProvisional;
+            this.clave = clave;
+            this.horario = horario;
+            this.reservaSustituida = reservaSustituida;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package es.iesjuanbosco.roberto.ReservasAulas.services;
 
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -9,11 +10,16 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
+    // Claims propios del token: id del usuario y roles separados por comas
+    public static final String CLAIM_ID_USUARIO = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     private final SecretKey secretKey;
 
     public JwtService() {
@@ -28,15 +34,20 @@ public class JwtService {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
+        // El id viaja en el token para no tener que buscar al usuario por email en cada petición
+        Long idUsuario = authentication.getPrincipal() instanceof Usuario usuario ? usuario.getId() : null;
+
         // Construir el token JWT
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())   // Identifica el token al revocarlo (logout)
                 .subject(authentication.getName())  // Email del usuario
                 .issuer("gestion-centro-api")       // Quién emite el token
                 .issuedAt(new Date())               // Cuándo se creó
                 .expiration(new Date(
                         System.currentTimeMillis() + 86400000  // Expira en 24h
                 ))
-                .claim("roles", roles)              // Roles del usuario
+                .claim(CLAIM_ID_USUARIO, idUsuario) // Id del usuario
+                .claim(CLAIM_ROLES, roles)          // Roles del usuario
                 .signWith(secretKey)                // Firmar con clave secreta
                 .compact();                         // Generar String del token
     }
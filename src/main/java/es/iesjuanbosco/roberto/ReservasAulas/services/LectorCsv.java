@@ -0,0 +1,87 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lector de CSV (RFC 4180) registro a registro, sin cargar el fichero en memoria. Admite campos entre comillas
+// con comas, comillas dobles ("") y saltos de línea, finales de línea \n o \r\n y BOM al principio. Las líneas
+// vacías se saltan.
+final class LectorCsv {
+
+    private final Reader entrada;
+    private boolean inicio = true;
+
+    // Línea en la que está el lector y línea en la que empezó el último registro (para los errores)
+    private long linea = 1;
+    private long lineaRegistro;
+
+    LectorCsv(InputStream entrada) {
+        this.entrada = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    long linea() {
+        return lineaRegistro;
+    }
+
+    // Campos del siguiente registro, o null al final del fichero
+    List<String> siguiente() throws IOException {
+        int c = leer();
+        while (c == '\n' || c == '\r') {
+            if (c == '\n') linea++;
+            c = leer();
+        }
+        if (c == -1) return null;
+
+        lineaRegistro = linea;
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Línea " + lineaRegistro + ": faltan comillas de cierre");
+                }
+                if (c == '"') {
+                    c = leer();
+                    if (c != '"') {
+                        entreComillas = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    linea++;
+                }
+                campo.append((char) c);
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') linea++;
+                campos.add(campo.toString());
+                return campos;
+            } else if (c != '\r') {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+    }
+
+    private int leer() throws IOException {
+        int c = entrada.read();
+        if (inicio) {
+            inicio = false;
+            if (c == '\uFEFF') {
+                c = entrada.read();
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,71 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Métricas de la ruta de reserva (Micrometer, expuestas en /actuator/prometheus):
+ * <ul>
+ *     <li>{@code reservas.guardado}: tiempo de crear o modificar una reserva, por operación y resultado.</li>
+ *     <li>{@code reservas.solapamiento}: tiempo de la comprobación de solapamiento en el índice de ocupación.</li>
+ *     <li>{@code reservas.rechazadas}: reservas rechazadas, por motivo.</li>
+ * </ul>
+ */
+@Component
+public class MetricasReservas {
+
+    // Motivos de rechazo
+    public static final String SOLAPAMIENTO = "solapamiento";               // detectado en el índice de ocupación
+    public static final String RESTRICCION_UNICA = "restriccion_unica";     // detectado por la base de datos
+    public static final String CAPACIDAD = "capacidad";
+    public static final String FECHA_PASADA = "fecha_pasada";
+
+    private final MeterRegistry registro;
+    private final Timer solapamiento;
+
+    public MetricasReservas(MeterRegistry registro) {
+        this.registro = registro;
+        this.solapamiento = Timer.builder("reservas.solapamiento")
+                .description("Comprobación de solapamiento y ocupación del hueco en el índice")
+                .register(registro);
+    }
+
+    // Mide una operación de guardado; el resultado se etiqueta según cómo termina (ok o el tipo de error)
+    public <T> T medirGuardado(String operacion, Supplier<T> guardado) {
+        Timer.Sample muestra = Timer.start(registro);
+        String resultado = "error";
+        try {
+            T guardada = guardado.get();
+            resultado = "ok";
+            return guardada;
+        } catch (ConflictoReservaException e) {
+            resultado = "conflicto";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            resultado = "invalida";
+            throw e;
+        } catch (EntityNotFoundException e) {
+            resultado = "no_encontrada";
+            throw e;
+        } finally {
+            muestra.stop(Timer.builder("reservas.guardado")
+                    .description("Alta o modificación de una reserva")
+                    .tag("operacion", operacion)
+                    .tag("resultado", resultado)
+                    .register(registro));
+        }
+    }
+
+    public <T> T medirSolapamiento(Supplier<T> comprobacion) {
+        return solapamiento.record(comprobacion);
+    }
+
+    public void rechazada(String motivo) {
+        registro.counter("reservas.rechazadas", "motivo", motivo).increment();
+    }
+}
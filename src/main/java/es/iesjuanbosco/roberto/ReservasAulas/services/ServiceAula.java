@@ -1,62 +1,157 @@
 package es.iesjuanbosco.roberto.ReservasAulas.services;
 
-import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiarClase;
+import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiadorPropiedades;
+import es.iesjuanbosco.roberto.ReservasAulas.config.CacheConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.DiaSemanaAulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.HuecoSemanaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.SemanaAulaDTO;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioAula;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
 import lombok.AllArgsConstructor;
-import lombok.SneakyThrows;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Las lecturas del catálogo pasan por la caché; cualquier escritura la vacía entera (cambia pocas veces por curso)
 @AllArgsConstructor
 @Service
 public class ServiceAula {
 
+    private static final CopiadorPropiedades<Aula> COPIADOR = CopiadorPropiedades.para(Aula.class);
+
     private final RepositorioAula repository;
-    private final CopiarClase copiarClase = new CopiarClase();
     private final RepositorioReserva repositoryReserva;
+    private final IndiceOcupacion indiceOcupacion;
+    private final VersionesColecciones versiones;
+    private final EstadisticasOcupacion estadisticas;
+    private final ServiceHorario serviceHorario;
 
+    @Cacheable(cacheNames = CacheConfig.CATALOGO_AULAS, key = "'todas'")
     public List<Aula> obtenerTodas() {
-        return repository.findAll();
+        return List.copyOf(repository.findAll());
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.AULAS, CacheConfig.CATALOGO_AULAS}, allEntries = true)
     public Aula guardar(Aula aula) {
-        return repository.save(aula);
+        Aula guardada = repository.save(aula);
+        versiones.aulasCambiadas();
+        return guardada;
+    }
+
+    // Alta masiva (importación CSV) con lotes JDBC: la caché y la versión del catálogo se invalidan una vez por
+    // bloque. Asigna a cada aula su id.
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.AULAS, CacheConfig.CATALOGO_AULAS}, allEntries = true)
+    public List<Aula> guardarTodas(List<Aula> aulas) {
+        repository.insertarEnLote(aulas);
+        versiones.aulasCambiadas();
+        return aulas;
     }
 
-    @SneakyThrows
+    // Se modifica una copia leída de la base de datos, nunca el objeto compartido de la caché
+    @CacheEvict(cacheNames = {CacheConfig.AULAS, CacheConfig.CATALOGO_AULAS}, allEntries = true)
     public Aula actualizar(Aula aulaModificada, Long id) {
-        Optional<Aula> aula = obtenerPorId(id);
+        Optional<Aula> aula = repository.findById(id);
 
         if(aula.isPresent()){
-            copiarClase.copyProperties(aula.get(), aulaModificada);
-            return repository.save(aula.get());
+            COPIADOR.copiarNoNulos(aula.get(), aulaModificada);
+            Aula guardada = repository.save(aula.get());
+            versiones.aulasCambiadas();
+            return guardada;
         }
 
         return aulaModificada;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.AULAS, CacheConfig.CATALOGO_AULAS}, allEntries = true)
     public void eliminar(Long id) {
         repository.deleteById(id);
+        indiceOcupacion.quitarAula(id);
+        estadisticas.quitarAula(id);
+        versiones.aulasCambiadas();
     }
 
+    @Cacheable(cacheNames = CacheConfig.AULAS, key = "#id", unless = "#result == null")
     public Optional<Aula> obtenerPorId(Long id) {
         return repository.findById(id);
     }
 
+    // Varias aulas con una sola consulta (reservas por lotes); las que no existen no aparecen
+    public List<Aula> obtenerPorIds(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATALOGO_AULAS, key = "'capacidad:' + #capacidad")
     public List<Aula> obtenerPorCapacidad(Integer capacidad) {
-        return repository.findByCapacidadGreaterThanEqual(capacidad);
+        return List.copyOf(repository.findByCapacidadGreaterThanEqual(capacidad));
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATALOGO_AULAS, key = "'ordenadores:' + #esOrdenador")
     public List<Aula> obtenerAulasConOrdenador(boolean esOrdenador) {
-        return repository.findByEsOrdenadores(esOrdenador);
+        return List.copyOf(repository.findByEsOrdenadores(esOrdenador));
     }
 
     public List<Reserva> obtenerReservasAula(Long id) {
         return repositoryReserva.getReservaByAula_Id(id);
     }
+
+    private record CeldaSemana(LocalDate fecha, Long horarioId) {}
+
+    // Cuadrante de la semana (lunes a domingo) que contiene la fecha: una consulta acotada a esos siete días más
+    // el catálogo de horarios de la caché, así que el tamaño no depende del historial del aula
+    public SemanaAulaDTO obtenerSemana(Aula aula, LocalDate fecha) {
+        LocalDate lunes = fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate domingo = lunes.plusDays(6);
+
+        Map<CeldaSemana, ReservaSemana> reservas = repositoryReserva.findSemanaAula(aula.getId(), lunes, domingo)
+                .stream()
+                .collect(Collectors.toMap(r -> new CeldaSemana(r.fecha(), r.horarioId()), Function.identity()));
+        Map<DayOfWeek, List<Horario>> horariosPorDia = serviceHorario.obtenerTodas().stream()
+                .sorted(Comparator.comparing(Horario::getHoraInicio).thenComparing(Horario::getId))
+                .collect(Collectors.groupingBy(h -> h.getDiaSemana().toDayOfWeek()));
+
+        List<DiaSemanaAulaDTO> dias = new ArrayList<>();
+        for (LocalDate dia = lunes; !dia.isAfter(domingo); dia = dia.plusDays(1)) {
+            List<HuecoSemanaDTO> huecos = new ArrayList<>();
+            for (Horario horario : horariosPorDia.getOrDefault(dia.getDayOfWeek(), List.of())) {
+                huecos.add(hueco(horario, reservas.get(new CeldaSemana(dia, horario.getId()))));
+            }
+            dias.add(new DiaSemanaAulaDTO(DiaSemana.from(dia.getDayOfWeek()).toString(), dia, huecos));
+        }
+        return new SemanaAulaDTO(aula.getId(), aula.getNombre(), lunes, domingo, dias);
+    }
+
+    private static HuecoSemanaDTO hueco(Horario horario, ReservaSemana reserva) {
+        HuecoSemanaDTO hueco = new HuecoSemanaDTO();
+        hueco.setHorarioId(horario.getId());
+        hueco.setHoraInicio(horario.getHoraInicio().toString());
+        hueco.setHoraFin(horario.getHoraFin().toString());
+
+        if (reserva != null) {
+            hueco.setReservaId(reserva.id());
+            hueco.setMotivo(reserva.motivo());
+            hueco.setAsistentes(reserva.asistentes());
+            hueco.setUsuarioId(reserva.usuarioId());
+            hueco.setUsuarioEmail(reserva.usuarioEmail());
+        }
+        return hueco;
+    }
 }
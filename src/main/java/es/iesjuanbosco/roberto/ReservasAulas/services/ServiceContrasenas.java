@@ -0,0 +1,88 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ServicioSaturadoException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta el trabajo de BCrypt (login, registro y cambio de contraseña) en un grupo de hilos propio y acotado,
+ * fuera de los hilos de Tomcat. Así un pico de logins solo puede ocupar {@code seguridad.bcrypt.hilos} núcleos y el
+ * resto de peticiones (catálogo, reservas) siguen atendiéndose. Si la cola de espera está llena la petición se
+ * rechaza enseguida con {@link ServicioSaturadoException} (503) en lugar de esperar.
+ * <p>
+ * Los hilos son de plataforma también en el perfil {@code virtual}: BCrypt es CPU pura y con hilos virtuales no
+ * habría límite al número de hashes en paralelo.
+ * <p>
+ * En el ejecutor solo entra el cálculo de BCrypt ({@code encode} o {@code matches}): las consultas y escrituras en la
+ * base de datos que vienen después ({@link #ejecutarYDespues}) siguen en el ejecutor de tareas de la aplicación, para
+ * que las esperas de JDBC no ocupen hilos de BCrypt ni provoquen 503.
+ */
+@Slf4j
+@Service
+public class ServiceContrasenas {
+
+    private final ThreadPoolExecutor ejecutor;
+    private final Executor ejecutorDespues;
+
+    public ServiceContrasenas(@Value("${seguridad.bcrypt.hilos:0}") int hilos,
+                              @Value("${seguridad.bcrypt.cola:64}") int cola,
+                              @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                              Executor ejecutorDespues) {
+        this.ejecutorDespues = ejecutorDespues;
+        // Por defecto la mitad de los núcleos: el hash de contraseñas es trabajo de CPU puro
+        int hilosEfectivos = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.ejecutor = new ThreadPoolExecutor(hilosEfectivos, hilosEfectivos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), hilosConNombre(), new ThreadPoolExecutor.AbortPolicy());
+        log.info("Ejecutor de contraseñas con {} hilos y cola de {}", hilosEfectivos, cola);
+    }
+
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, ejecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ServicioSaturadoException("Demasiadas peticiones de autenticación en curso, inténtalo de nuevo");
+        }
+    }
+
+    // El hash en el ejecutor de contraseñas y, con su resultado, el resto (normalmente guardar) en el de la aplicación
+    public <T, R> CompletableFuture<R> ejecutarYDespues(Supplier<T> tarea, Function<T, R> despues) {
+        return ejecutar(tarea).thenApplyAsync(despues, ejecutorDespues);
+    }
+
+    public int tareasEnCola() {
+        return ejecutor.getQueue().size();
+    }
+
+    public int tareasEnCurso() {
+        return ejecutor.getActiveCount();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ejecutor.shutdown();
+    }
+
+    private static ThreadFactory hilosConNombre() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, "bcrypt-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Búsqueda de aulas libres en una fecha y horario sin consultar la base de datos:
+ * cruza los BitSet de {@link IndiceOcupacion} con el catálogo de aulas y horarios de la caché
+ * ({@link ServiceAula#obtenerTodas}, {@link ServiceHorario#obtenerTodas}), que se vacía con cada escritura.
+ */
+@Service
+@RequiredArgsConstructor
+public class ServiceDisponibilidad {
+
+    private final ServiceAula serviceAula;
+    private final ServiceHorario serviceHorario;
+    private final IndiceOcupacion indiceOcupacion;
+
+    public List<Aula> buscarAulasLibres(LocalDate fecha, Long horarioId, Integer capacidadMin, Boolean esOrdenadores) {
+        // El índice solo guarda la ocupación de hoy en adelante
+        if (fecha.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Solo se puede consultar la disponibilidad de hoy en adelante.");
+        }
+
+        List<Horario> catalogoHorarios = serviceHorario.obtenerTodas();
+        Horario horario = catalogoHorarios.stream()
+                .filter(h -> h.getId().equals(horarioId))
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + horarioId));
+
+        // Un aula está ocupada si tiene reserva en este horario o en cualquier otro que se solape con él
+        List<Long> horariosSolapados = catalogoHorarios.stream()
+                .filter(horario::seSolapaCon)
+                .map(Horario::getId)
+                .toList();
+        BitSet ocupadas = indiceOcupacion.aulasOcupadas(fecha, horariosSolapados);
+
+        List<Aula> libres = new ArrayList<>();
+        for (Aula aula : serviceAula.obtenerTodas()) {
+            if (ocupadas.get(Math.toIntExact(aula.getId()))) continue;
+            if (capacidadMin != null && (aula.getCapacidad() == null || aula.getCapacidad() < capacidadMin)) continue;
+            if (esOrdenadores != null && !esOrdenadores.equals(aula.getEsOrdenadores())) continue;
+            libres.add(aula);
+        }
+        libres.sort(Comparator.comparing(Aula::getId));
+        return libres;
+    }
+}
@@ -0,0 +1,112 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReservaHistorica;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Exportación de todas las reservas, archivadas y vigentes, escribiendo fila a fila en la respuesta, con memoria
+// constante
+@AllArgsConstructor
+@Service
+public class ServiceExportacion {
+
+    // Cada cuántas filas se vacía el buffer hacia el cliente
+    private static final int FILAS_POR_ENVIO = 1000;
+
+    private static final String CABECERA_CSV = "id,fecha,motivo,asistentes,fechaCreacion,aulaId,aulaNombre," +
+            "horarioId,horarioDiaSemana,horarioHoraInicio,horarioHoraFin,usuarioId,usuarioEmail";
+
+    private final RepositorioReserva repository;
+    private final RepositorioReservaHistorica historico;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportarNdjson(OutputStream salida) throws IOException {
+        try (Stream<ReservaExportacion> filas = filas();
+             SequenceWriter escritor = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n").writeValues(salida)) {
+            int escritas = 0;
+            for (Iterator<ReservaExportacion> it = filas.iterator(); it.hasNext(); ) {
+                escritor.write(it.next());
+                // La primera fila sale enseguida; después se envía por bloques
+                if (++escritas % FILAS_POR_ENVIO == 1) {
+                    escritor.flush();
+                }
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarCsv(OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write(CABECERA_CSV);
+        escritor.write('\n');
+        escritor.flush();
+
+        try (Stream<ReservaExportacion> filas = filas()) {
+            int escritas = 0;
+            for (Iterator<ReservaExportacion> it = filas.iterator(); it.hasNext(); ) {
+                escribirFilaCsv(escritor, it.next());
+                if (++escritas % FILAS_POR_ENVIO == 0) {
+                    escritor.flush();
+                }
+            }
+        }
+        escritor.flush();
+    }
+
+    // Primero el histórico y después las vigentes. flatMap abre cada consulta al llegar a ella y la cierra al
+    // terminarla, así que nunca hay dos cursores abiertos a la vez
+    private Stream<ReservaExportacion> filas() {
+        return Stream.<Supplier<Stream<ReservaExportacion>>>of(historico::streamExportacion, repository::streamExportacion)
+                .flatMap(Supplier::get);
+    }
+
+    private static void escribirFilaCsv(Writer escritor, ReservaExportacion fila) throws IOException {
+        escritor.write(String.join(",",
+                valor(fila.id()),
+                valor(fila.fecha()),
+                campoCsv(fila.motivo()),
+                valor(fila.asistentes()),
+                valor(fila.fechaCreacion()),
+                valor(fila.aulaId()),
+                campoCsv(fila.aulaNombre()),
+                valor(fila.horarioId()),
+                valor(fila.horarioDiaSemana()),
+                valor(fila.horarioHoraInicio()),
+                valor(fila.horarioHoraFin()),
+                valor(fila.usuarioId()),
+                campoCsv(fila.usuarioEmail())));
+        escritor.write('\n');
+    }
+
+    private static String valor(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    // Texto libre entre comillas si contiene separadores, comillas o saltos de línea (RFC 4180)
+    private static String campoCsv(String texto) {
+        if (texto == null) return "";
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,59 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.ReservaHistorica;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.EspecificacionesReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReservaHistorica;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+
+// Reservas pasadas en reservas_historico: el archivo por lotes que lanza ArchivoReservas y su consulta
+@AllArgsConstructor
+@Service
+public class ServiceHistorico {
+
+    private final RepositorioReserva repository;
+    private final RepositorioReservaHistorica historico;
+    private final VersionesColecciones versiones;
+
+    // Mueve al histórico hasta maximo reservas anteriores a antesDe en una transacción y devuelve cuántas ha
+    // movido. Solo fechas pasadas: el índice de ocupación y la difusión solo cubren de hoy en adelante, y las
+    // estadísticas cuentan también el histórico, así que ninguno de los tres cambia.
+    @Transactional
+    public int archivarLote(LocalDate antesDe, int maximo) {
+        if (antesDe.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Solo se pueden archivar reservas pasadas.");
+        }
+
+        List<Long> aulas = repository.archivarAnterioresA(antesDe, maximo);
+        new HashSet<>(aulas).forEach(versiones::reservasCambiadas);
+        return aulas.size();
+    }
+
+    // Como ServiceReserva.obtenerPagina, sobre las reservas archivadas
+    @Transactional(readOnly = true)
+    public List<Reserva> obtenerPagina(Long aulaId, Long usuarioId, LocalDate desde, LocalDate hasta,
+                                       DiaSemana diaSemana, CursorReserva cursor, int limite) {
+        Specification<ReservaHistorica> filtro =
+                EspecificacionesReserva.filtro(aulaId, usuarioId, desde, hasta, diaSemana, cursor);
+
+        return historico.findBy(filtro, q -> q
+                        .sortBy(Sort.by("fecha", "id"))
+                        .limit(limite + 1)
+                        .all())
+                .stream()
+                .map(ReservaMapper::fromHistorica)
+                .toList();
+    }
+}
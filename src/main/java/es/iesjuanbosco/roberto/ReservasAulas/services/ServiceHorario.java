@@ -1,33 +1,83 @@
 package es.iesjuanbosco.roberto.ReservasAulas.services;
 
+import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiadorPropiedades;
+import es.iesjuanbosco.roberto.ReservasAulas.config.CacheConfig;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioHorario;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
+// Las lecturas del catálogo pasan por la caché; cualquier escritura la vacía entera (cambia pocas veces por curso)
 @AllArgsConstructor
 @Service
 public class ServiceHorario {
 
+    private static final CopiadorPropiedades<Horario> COPIADOR = CopiadorPropiedades.para(Horario.class);
+
     private final RepositorioHorario repository;
+    private final IndiceOcupacion indiceOcupacion;
+    private final VersionesColecciones versiones;
 
+    @Cacheable(cacheNames = CacheConfig.CATALOGO_HORARIOS, key = "'todos'")
     public List<Horario> obtenerTodas() {
-        return repository.findAll();
+        return List.copyOf(repository.findAll());
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.HORARIOS, CacheConfig.CATALOGO_HORARIOS}, allEntries = true)
     public Horario guardar(Horario horario) {
-        return repository.save(horario);
+        Horario guardado = repository.save(horario);
+        indiceOcupacion.actualizarHorario(guardado);
+        versiones.horariosCambiados();
+        return guardado;
+    }
+
+    // Alta masiva (importación CSV) con lotes JDBC: la caché y la versión del catálogo se invalidan una vez por
+    // bloque. Los horarios nuevos no tienen reservas, así que el índice de ocupación no cambia.
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfig.HORARIOS, CacheConfig.CATALOGO_HORARIOS}, allEntries = true)
+    public List<Horario> guardarTodas(List<Horario> horarios) {
+        repository.insertarEnLote(horarios);
+        versiones.horariosCambiados();
+        return horarios;
+    }
+
+    // Se modifica una copia leída de la base de datos, nunca el objeto compartido de la caché.
+    // Devuelve null si el horario no existe.
+    @CacheEvict(cacheNames = {CacheConfig.HORARIOS, CacheConfig.CATALOGO_HORARIOS}, allEntries = true)
+    public Horario actualizar(Horario horarioModificado, Long id) {
+        Horario horario = repository.findById(id).orElse(null);
+        if (horario == null) {
+            return null;
+        }
+
+        COPIADOR.copiarNoNulos(horario, horarioModificado);
+        Horario guardado = repository.save(horario);
+        indiceOcupacion.actualizarHorario(guardado);
+        versiones.horariosCambiados();
+        return guardado;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.HORARIOS, CacheConfig.CATALOGO_HORARIOS}, allEntries = true)
     public void eliminar(Long id) {
         repository.deleteById(id);
+        versiones.horariosCambiados();
     }
 
+    @Cacheable(cacheNames = CacheConfig.HORARIOS, key = "#id", unless = "#result == null")
     public Horario obtenerPorId(Long id) {
         return repository.findById(id).orElse(null);
     }
 
+    // Varios horarios con una sola consulta (reservas por lotes); los que no existen no aparecen
+    public List<Horario> obtenerPorIds(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
     // ahora mismo el horario se crea al hacer una reserva pero lo que hay que hacer es crear los horarios de forma independiente y cuando creas una reserva, elegir uno de estos horarios
 }
@@ -0,0 +1,392 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.AulaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ErrorImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.HorarioRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.AulaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.HorarioMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de aulas, horarios y reservas desde CSV, con una primera fila de cabecera que da nombre a
+ * las columnas (el orden da igual y las columnas desconocidas se ignoran).
+ * <p>
+ * El fichero se lee registro a registro y se guarda por bloques de {@value #FILAS_POR_BLOQUE} filas, cada uno en
+ * su propia transacción, así que la memoria no depende del tamaño del fichero. Cada fila se valida contra el
+ * catálogo en memoria (aulas y horarios de la caché, usuarios por email) y, las reservas, contra el índice de
+ * ocupación con las mismas reglas que el alta por lotes; las aceptadas se insertan con lotes JDBC. Una fila
+ * inválida no detiene la importación: se anota con su número de línea y se sigue con la siguiente.
+ * <p>
+ * Si la importación se corta a medias, los bloques ya confirmados quedan guardados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServiceImportacion {
+
+    static final int FILAS_POR_BLOQUE = 1000;
+
+    // Cada cuántas filas se anota el progreso en el log
+    private static final int FILAS_POR_AVISO = 10_000;
+
+    // Filas rechazadas que se devuelven con detalle; el resto solo se cuentan
+    static final int MAX_ERRORES = 1000;
+
+    // Estricto: un 30/02 es un error de la fila, no el 28/02
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private final ServiceAula serviceAula;
+    private final ServiceHorario serviceHorario;
+    private final ServiceReserva serviceReserva;
+    private final RepositorioUsuario repositorioUsuario;
+    private final Validator validator;
+
+    // Columnas: nombre, capacidad, esOrdenadores. No puede repetirse el nombre de un aula.
+    public ResultadoImportacion importarAulas(InputStream entrada) throws IOException {
+        Set<String> nombres = serviceAula.obtenerTodas().stream()
+                .map(aula -> normalizar(aula.getNombre()))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        return importar("aulas", entrada, List.of("nombre", "capacidad", "esOrdenadores"), fila -> {
+            AulaRequest request = new AulaRequest();
+            request.setNombre(fila.texto("nombre"));
+            request.setCapacidad(fila.entero("capacidad"));
+            request.setEsOrdenadores(fila.booleano("esOrdenadores"));
+            validar(request);
+
+            if (!nombres.add(normalizar(request.getNombre()))) {
+                throw new IllegalArgumentException("Ya existe un aula con el nombre " + request.getNombre());
+            }
+            return AulaMapper.toEntity(request);
+        }, bloque -> {
+            serviceAula.guardarTodas(bloque);
+            return new String[bloque.size()];
+        });
+    }
+
+    // Columnas: diaSemana, horaInicio, horaFin. No puede repetirse un horario con el mismo día y horas.
+    public ResultadoImportacion importarHorarios(InputStream entrada) throws IOException {
+        Set<String> existentes = serviceHorario.obtenerTodas().stream()
+                .map(ServiceImportacion::claveHorario)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        return importar("horarios", entrada, List.of("diaSemana", "horaInicio", "horaFin"), fila -> {
+            HorarioRequest request = new HorarioRequest();
+            request.setDiaSemana(fila.dia("diaSemana"));
+            request.setHoraInicio(fila.hora("horaInicio"));
+            request.setHoraFin(fila.hora("horaFin"));
+            validar(request);
+
+            if (!request.getHoraFin().isAfter(request.getHoraInicio())) {
+                throw new IllegalArgumentException("La hora de fin debe ser posterior a la de inicio");
+            }
+            Horario horario = HorarioMapper.toEntity(request);
+            if (!existentes.add(claveHorario(horario))) {
+                throw new IllegalArgumentException("Ya existe un horario el " + horario.getDiaSemana() + " de "
+                        + horario.getHoraInicio() + " a " + horario.getHoraFin());
+            }
+            return horario;
+        }, bloque -> {
+            serviceHorario.guardarTodas(bloque);
+            return new String[bloque.size()];
+        });
+    }
+
+    // Columnas: fecha (dd/MM/yyyy o yyyy-MM-dd), motivo, asistentes; el aula por aulaId o aulaNombre; el horario
+    // por horarioId o por horarioDiaSemana y horarioHoraInicio; el usuario por usuarioEmail o usuarioId. Son altas
+    // nuevas con las reglas de siempre, así que las fechas pasadas se rechazan: del CSV de
+    // GET /reservas/exportar?formato=csv solo entran las reservas de hoy en adelante.
+    public ResultadoImportacion importarReservas(InputStream entrada) throws IOException {
+        List<Aula> aulas = serviceAula.obtenerTodas();
+        Map<Long, Aula> aulasPorId = aulas.stream().collect(Collectors.toMap(Aula::getId, Function.identity()));
+        Map<String, Aula> aulasPorNombre = aulas.stream()
+                .collect(Collectors.toMap(aula -> normalizar(aula.getNombre()), Function.identity(), (a, b) -> a));
+
+        List<Horario> horarios = serviceHorario.obtenerTodas();
+        Map<Long, Horario> horariosPorId = horarios.stream()
+                .collect(Collectors.toMap(Horario::getId, Function.identity()));
+        Map<String, List<Horario>> horariosPorInicio = horarios.stream()
+                .collect(Collectors.groupingBy(horario -> horario.getDiaSemana() + " " + horario.getHoraInicio()));
+
+        // Solo el id y el email: es lo que necesita la reserva para guardarse
+        Map<Long, Usuario> usuariosPorId = new HashMap<>();
+        Map<String, Usuario> usuariosPorEmail = new HashMap<>();
+        for (Usuario usuario : repositorioUsuario.findAll()) {
+            Usuario referencia = new Usuario();
+            referencia.setId(usuario.getId());
+            referencia.setEmail(usuario.getEmail());
+            usuariosPorId.put(referencia.getId(), referencia);
+            usuariosPorEmail.put(normalizar(referencia.getEmail()), referencia);
+        }
+
+        List<String> columnas = List.of("fecha", "motivo", "asistentes", "aulaId|aulaNombre",
+                "horarioId|horarioDiaSemana", "horarioId|horarioHoraInicio", "usuarioId|usuarioEmail");
+
+        return importar("reservas", entrada, columnas, fila -> {
+            Aula aula = fila.texto("aulaId") != null
+                    ? buscar(aulasPorId, fila.id("aulaId"), "Aula no encontrada con id: ")
+                    : buscar(aulasPorNombre, normalizar(fila.texto("aulaNombre")), "Aula no encontrada: ");
+
+            Horario horario;
+            if (fila.texto("horarioId") != null) {
+                horario = buscar(horariosPorId, fila.id("horarioId"), "Horario no encontrado con id: ");
+            } else {
+                String inicio = fila.dia("horarioDiaSemana") + " " + fila.hora("horarioHoraInicio");
+                List<Horario> candidatos = horariosPorInicio.getOrDefault(inicio, List.of());
+                if (candidatos.size() != 1) {
+                    throw new IllegalArgumentException(candidatos.isEmpty()
+                            ? "Horario no encontrado: " + inicio
+                            : "Hay varios horarios el " + inicio + ", indique horarioId");
+                }
+                horario = candidatos.get(0);
+            }
+
+            Usuario usuario = fila.texto("usuarioEmail") != null
+                    ? buscar(usuariosPorEmail, normalizar(fila.texto("usuarioEmail")), "Usuario no encontrado: ")
+                    : buscar(usuariosPorId, fila.id("usuarioId"), "Usuario no encontrado con id: ");
+
+            ReservaRequest request = new ReservaRequest();
+            request.setAulaId(aula.getId());
+            request.setHorarioId(horario.getId());
+            request.setMotivo(fila.texto("motivo"));
+            request.setAsistentes(fila.entero("asistentes"));
+            request.setFecha(fila.fecha("fecha"));
+            validar(request);
+
+            Reserva reserva = new Reserva();
+            reserva.setAula(aula);
+            reserva.setHorario(horario);
+            reserva.setUsuario(usuario);
+            reserva.setFecha(request.getFecha());
+            reserva.setMotivo(request.getMotivo());
+            reserva.setAsistentes(request.getAsistentes());
+            return reserva;
+        }, bloque -> {
+            Reserva[] reservas = bloque.toArray(new Reserva[0]);
+            String[] errores = new String[reservas.length];
+            serviceReserva.importarLote(reservas, errores);
+            return errores;
+        });
+    }
+
+    // Lee el fichero y guarda las filas convertidas por bloques. guardar devuelve el error de cada fila del bloque
+    // (null si se guardó). Las filas que no se pueden convertir lanzan IllegalArgumentException con el motivo.
+    private <T> ResultadoImportacion importar(String tipo, InputStream entrada, List<String> obligatorias,
+                                              Function<Fila, T> convertir,
+                                              Function<List<T>, String[]> guardar) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        resultado.setTipo(tipo);
+
+        LectorCsv lector = new LectorCsv(entrada);
+        Map<String, Integer> columnas = cabecera(lector.siguiente(), obligatorias);
+
+        List<T> bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+        List<Long> lineas = new ArrayList<>(FILAS_POR_BLOQUE);
+        for (List<String> campos = lector.siguiente(); campos != null; campos = lector.siguiente()) {
+            resultado.setFilas(resultado.getFilas() + 1);
+            try {
+                bloque.add(convertir.apply(new Fila(columnas, campos)));
+                lineas.add(lector.linea());
+            } catch (IllegalArgumentException e) {
+                rechazar(resultado, lector.linea(), e.getMessage());
+            }
+
+            if (bloque.size() == FILAS_POR_BLOQUE) {
+                guardarBloque(bloque, lineas, guardar, resultado);
+            }
+            if (resultado.getFilas() % FILAS_POR_AVISO == 0) {
+                log.info("Importación de {}: {} filas leídas, {} importadas, {} rechazadas", tipo,
+                        resultado.getFilas(), resultado.getImportadas(), resultado.getRechazadas());
+            }
+        }
+        guardarBloque(bloque, lineas, guardar, resultado);
+
+        resultado.setMilisegundos(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        log.info("Importación de {} terminada: {} filas, {} importadas, {} rechazadas en {} ms", tipo,
+                resultado.getFilas(), resultado.getImportadas(), resultado.getRechazadas(),
+                resultado.getMilisegundos());
+        return resultado;
+    }
+
+    private static <T> void guardarBloque(List<T> bloque, List<Long> lineas, Function<List<T>, String[]> guardar,
+                                          ResultadoImportacion resultado) {
+        if (bloque.isEmpty()) return;
+
+        String[] errores = guardar.apply(bloque);
+        for (int i = 0; i < errores.length; i++) {
+            if (errores[i] == null) {
+                resultado.setImportadas(resultado.getImportadas() + 1);
+            } else {
+                rechazar(resultado, lineas.get(i), errores[i]);
+            }
+        }
+        bloque.clear();
+        lineas.clear();
+    }
+
+    private static void rechazar(ResultadoImportacion resultado, long linea, String mensaje) {
+        resultado.setRechazadas(resultado.getRechazadas() + 1);
+        if (resultado.getErrores().size() < MAX_ERRORES) {
+            resultado.getErrores().add(new ErrorImportacion(linea, mensaje));
+        }
+    }
+
+    // Posición de cada columna. "a|b" en obligatorias significa que basta con una de las dos.
+    private static Map<String, Integer> cabecera(List<String> campos, List<String> obligatorias) {
+        if (campos == null) {
+            throw new IllegalArgumentException("El fichero está vacío");
+        }
+
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < campos.size(); i++) {
+            columnas.putIfAbsent(campos.get(i).trim(), i);
+        }
+
+        List<String> faltan = obligatorias.stream()
+                .filter(alternativas -> Arrays.stream(alternativas.split("\\|")).noneMatch(columnas::containsKey))
+                .map(alternativas -> alternativas.replace("|", " o "))
+                .distinct()
+                .toList();
+        if (!faltan.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera: " + String.join(", ", faltan));
+        }
+        return columnas;
+    }
+
+    private void validar(Object request) {
+        Set<ConstraintViolation<Object>> violaciones = validator.validate(request);
+        if (!violaciones.isEmpty()) {
+            throw new IllegalArgumentException(violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static <K, V> V buscar(Map<K, V> catalogo, K clave, String mensaje) {
+        V valor = catalogo.get(clave);
+        if (valor == null) {
+            throw new IllegalArgumentException(mensaje + clave);
+        }
+        return valor;
+    }
+
+    private static String claveHorario(Horario horario) {
+        return horario.getDiaSemana() + " " + horario.getHoraInicio() + " " + horario.getHoraFin();
+    }
+
+    // Nombres y emails se comparan sin distinguir mayúsculas ni espacios alrededor
+    private static String normalizar(String texto) {
+        return texto == null ? null : texto.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Valores de una fila por nombre de columna; un campo vacío o ausente es null
+    private record Fila(Map<String, Integer> columnas, List<String> campos) {
+
+        String texto(String columna) {
+            Integer posicion = columnas.get(columna);
+            if (posicion == null || posicion >= campos.size()) return null;
+            String valor = campos.get(posicion).trim();
+            return valor.isEmpty() ? null : valor;
+        }
+
+        Integer entero(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            try {
+                return Integer.valueOf(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(columna + " no es un número: " + valor);
+            }
+        }
+
+        Long id(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            try {
+                return Long.valueOf(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(columna + " no es un id válido: " + valor);
+            }
+        }
+
+        Boolean booleano(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            return switch (sinAcentos(valor)) {
+                case "true", "si", "1" -> true;
+                case "false", "no", "0" -> false;
+                default -> throw new IllegalArgumentException(columna + " debe ser true/false o si/no: " + valor);
+            };
+        }
+
+        LocalDate fecha(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            try {
+                return valor.contains("-") ? LocalDate.parse(valor) : LocalDate.parse(valor, FECHA);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(columna + " no es una fecha dd/MM/yyyy o yyyy-MM-dd: " + valor);
+            }
+        }
+
+        LocalTime hora(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            try {
+                return LocalTime.parse(valor);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(columna + " no es una hora HH:mm o HH:mm:ss: " + valor);
+            }
+        }
+
+        DiaSemana dia(String columna) {
+            String valor = texto(columna);
+            if (valor == null) return null;
+            try {
+                return DiaSemana.valueOf(sinAcentos(valor).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(columna + " no es un día de la semana: " + valor);
+            }
+        }
+
+        // "Miércoles" -> "miercoles", "Sí" -> "si"
+        private static String sinAcentos(String valor) {
+            return Normalizer.normalize(valor, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
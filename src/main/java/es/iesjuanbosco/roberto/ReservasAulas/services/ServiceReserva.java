@@ -1,91 +1,185 @@
 package es.iesjuanbosco.roberto.ReservasAulas.services;
 
-import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiarClase;
+import es.iesjuanbosco.roberto.ReservasAulas.beans.CopiadorPropiedades;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRecurrenteRequest;
 import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoReservaLote;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
 import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
-import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioAula;
-import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.EspecificacionesReserva;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
 import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
-import lombok.SneakyThrows;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Service
 public class ServiceReserva {
 
     private final RepositorioReserva repository;
-    private final RepositorioAula repositorioAula;
-    private final RepositorioHorario repositorioHorario;
     private final RepositorioUsuario repositorioUsuario;
+    private final ServiceAula serviceAula;
+    private final ServiceHorario serviceHorario;
+    private final IndiceOcupacion indiceOcupacion;
+    private final Validator validator;
+    private final MetricasReservas metricas;
+    private final VersionesColecciones versiones;
+    private final EstadisticasOcupacion estadisticas;
+    private final DifusionOcupacion difusion;
 
-    private final CopiarClase copiarClase = new CopiarClase();
+    private static final CopiadorPropiedades<Reserva> COPIADOR = CopiadorPropiedades.para(Reserva.class);
+
+    // Límite de fechas generadas por una reserva recurrente (aprox. un curso completo semanal)
+    private static final int MAX_REPETICIONES = 60;
+
+    private static final String MENSAJE_SOLAPAMIENTO =
+            "La reserva se solapa con otra reserva existente en el mismo aula y horario.";
 
     private void validarReserva(Reserva reserva) {
         // Validación 2: No permitir reservas en el pasado
         if (reserva.getFecha().isBefore(LocalDate.now())) {
+            metricas.rechazada(MetricasReservas.FECHA_PASADA);
             throw new IllegalArgumentException("No se pueden hacer reservas en el pasado.");
         }
 
         // Validación 3: Número de asistentes no puede superar la capacidad del aula
         if (reserva.getAsistentes() > reserva.getAula().getCapacidad()) {
+            metricas.rechazada(MetricasReservas.CAPACIDAD);
             throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
         }
 
-        // Validación 1: No permitir reservas solapadas en el mismo aula y horario
-        List<Reserva> reservasAula = repository.getReservaByAula_Id(reserva.getAula().getId());
+        // Validación 1 (solapamientos): se hace al ocupar el hueco, ver ocuparYGuardar
+    }
+
+    // El usuario autenticado viene del token: basta con una referencia por su id, sin consultar la tabla de usuarios
+    // (el proxy solo se carga si después se lee algo más que el id)
+    private Usuario referencia(UsuarioAutenticado usuarioAutenticado) {
+        return repositorioUsuario.getReferenceById(usuarioAutenticado.id());
+    }
 
-        for (Reserva rExistente : reservasAula) {
-            // ignorar misma reserva (en caso de actualización)
-            if (reserva.getId() != null && reserva.getId().equals(rExistente.getId())) continue;
+    // Validación 1: No permitir reservas solapadas en el mismo aula y horario.
+    // El índice comprueba y ocupa el hueco de forma atómica, así que dos peticiones simultáneas no pueden
+    // pasar ambas. El índice es de esta instancia: con varias instancias de la API la restricción única solo rechaza
+    // el mismo (aula, fecha, horario) exacto, y dos horarios distintos que se solapan pueden reservarse a la vez
+    private Reserva ocuparYGuardar(Reserva reserva) {
+        IndiceOcupacion.Ocupacion hueco;
+        try {
+            hueco = metricas.medirSolapamiento(() -> indiceOcupacion.ocupar(
+                    reserva.getAula().getId(), reserva.getFecha(), reserva.getHorario(), reserva.getId()));
+        } catch (ConflictoReservaException e) {
+            metricas.rechazada(MetricasReservas.SOLAPAMIENTO);
+            throw e;
+        }
+        difusion.huecoCambiado(reserva);
 
-            if (rExistente.getFecha().isEqual(reserva.getFecha())) {
-                Horario hExistente = rExistente.getHorario();
-                Horario hNuevo = reserva.getHorario();
+        Reserva guardada;
+        try {
+            guardada = repository.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException e) {
+            throw traducirConflicto(e);
+        }
 
-                if (hExistente != null && hNuevo != null) {
-                    if (hNuevo.seSolapaCon(hExistente)) {
-                        throw new IllegalArgumentException("La reserva se solapa con otra reserva existente en el mismo aula y horario.");
-                    }
-                }
-            }
+        indiceOcupacion.confirmar(hueco, guardada);
+        versiones.reservasCambiadas(guardada.getAula().getId());
+        estadisticas.sumar(guardada);
+        return guardada;
+    }
+
+    private void insertarEnLote(List<Reserva> reservas) {
+        try {
+            repository.insertarEnLote(reservas);
+        } catch (DataIntegrityViolationException e) {
+            throw traducirConflicto(e);
         }
+        reservas.stream().map(reserva -> reserva.getAula().getId()).distinct().forEach(versiones::reservasCambiadas);
+        reservas.forEach(estadisticas::sumar);
     }
 
-    @SneakyThrows
+    private RuntimeException traducirConflicto(DataIntegrityViolationException e) {
+        String mensaje = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (mensaje.contains(Reserva.RESTRICCION_HUECO)) {
+            metricas.rechazada(MetricasReservas.RESTRICCION_UNICA);
+            return new ConflictoReservaException(MENSAJE_SOLAPAMIENTO);
+        }
+        return e;
+    }
+
+    @Transactional
     public Reserva actualizar(Reserva reservaModificada, Long id) {
         Optional<Reserva> reservaOptional = obtenerPorId(id);
 
         if (reservaOptional.isPresent()) {
-            copiarClase.copyProperties(reservaOptional.get(), reservaModificada);
-            validarReserva(reservaOptional.get());
-            return repository.save(reservaOptional.get());
+            // La posición anterior de la reserva deja de contar (y si cambia de aula, el listado anterior también cambia)
+            Reserva existente = reservaOptional.get();
+            LocalDate fechaAnterior = existente.getFecha();
+            Long aulaAnterior = existente.getAula().getId();
+            Long horarioAnterior = existente.getHorario().getId();
+            versiones.reservasCambiadas(aulaAnterior);
+            estadisticas.restar(existente);
+
+            COPIADOR.copiarNoNulos(existente, reservaModificada);
+            validarReserva(existente);
+            Reserva guardada = ocuparYGuardar(existente);
+            difusion.huecoCambiado(fechaAnterior, aulaAnterior, horarioAnterior);
+            return guardada;
         }
 
         return reservaModificada;
     }
 
+    @Transactional(readOnly = true)
     public List<Reserva> obtenerTodas() {
         return repository.findAll();
     }
 
+    // Página de reservas ordenadas por (fecha, id) a continuación del cursor. Devuelve hasta limite + 1
+    // elementos: si llega el extra es que hay más páginas.
+    @Transactional(readOnly = true)
+    public List<Reserva> obtenerPagina(Long aulaId, Long usuarioId, LocalDate desde, LocalDate hasta,
+                                       DiaSemana diaSemana, CursorReserva cursor, int limite) {
+        Specification<Reserva> filtro = EspecificacionesReserva.filtro(aulaId, usuarioId, desde, hasta, diaSemana, cursor);
+
+        return repository.findBy(filtro, q -> q
+                .sortBy(Sort.by("fecha", "id"))
+                .limit(limite + 1)
+                .all());
+    }
+
+    @Transactional
     public Reserva guardar(ReservaRequest request) {
         Reserva reserva = new Reserva();
 
-        Aula aula = repositorioAula.findById(request.getAulaId())
+        Aula aula = serviceAula.obtenerPorId(request.getAulaId())
                 .orElseThrow(() -> new EntityNotFoundException("Aula no encontrada con id: " + request.getAulaId()));
 
-        Horario horario = repositorioHorario.findById(request.getHorarioId())
+        Horario horario = Optional.ofNullable(serviceHorario.obtenerPorId(request.getHorarioId()))
                 .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + request.getHorarioId()));
 
         reserva.setAula(aula);
@@ -96,18 +190,20 @@ public class ServiceReserva {
 
         // validar
         if (reserva.getAsistentes() > aula.getCapacidad()) {
+            metricas.rechazada(MetricasReservas.CAPACIDAD);
             throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
         }
 
-        if (repository.existsSolapamiento(request.getAulaId(), request.getHorarioId(), request.getFecha())) {
-            throw new IllegalArgumentException("La reserva se solapa con otra reserva existente en el mismo aula y horario.");
-        }
-
-        return repository.save(reserva);
+        return ocuparYGuardar(reserva);
     }
 
-    public void eliminar(Long id) {
-        repository.deleteById(id);
+    @Transactional
+    public void eliminar(Reserva reserva) {
+        repository.deleteById(reserva.getId());
+        indiceOcupacion.quitar(reserva.getId());
+        versiones.reservasCambiadas(reserva.getAula().getId());
+        estadisticas.restar(reserva);
+        difusion.huecoCambiado(reserva);
     }
 
     public Optional<Reserva> obtenerPorId(Long id) {
@@ -115,79 +211,254 @@ public class ServiceReserva {
     }
 
     @Transactional
-    public Reserva guardarConUsuario(ReservaRequest request, String emailUsuario) {
-        Reserva reserva = new Reserva();
+    public Reserva guardarConUsuario(ReservaRequest request, UsuarioAutenticado usuarioAutenticado) {
+        return metricas.medirGuardado("crear", () -> {
+            Reserva reserva = new Reserva();
 
-        Aula aula = repositorioAula.findById(request.getAulaId())
-                .orElseThrow(() -> new EntityNotFoundException("Aula no encontrada con id: " + request.getAulaId()));
+            Aula aula = serviceAula.obtenerPorId(request.getAulaId())
+                    .orElseThrow(() -> new EntityNotFoundException("Aula no encontrada con id: " + request.getAulaId()));
 
-        Horario horario = repositorioHorario.findById(request.getHorarioId())
-                .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + request.getHorarioId()));
+            Horario horario = Optional.ofNullable(serviceHorario.obtenerPorId(request.getHorarioId()))
+                    .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + request.getHorarioId()));
 
-        // Buscar usuario por email (el autenticado)
-        Usuario usuario = repositorioUsuario.findByEmail(emailUsuario)
-                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con email: " + emailUsuario));
+            Usuario usuario = referencia(usuarioAutenticado);
 
-        reserva.setAula(aula);
-        reserva.setHorario(horario);
-        reserva.setUsuario(usuario);
-        reserva.setFecha(request.getFecha());
-        reserva.setMotivo(request.getMotivo());
-        reserva.setAsistentes(request.getAsistentes());
+            reserva.setAula(aula);
+            reserva.setHorario(horario);
+            reserva.setUsuario(usuario);
+            reserva.setFecha(request.getFecha());
+            reserva.setMotivo(request.getMotivo());
+            reserva.setAsistentes(request.getAsistentes());
 
-        // Validaciones
-        if (reserva.getAsistentes() > aula.getCapacidad()) {
-            throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
+            // Validaciones
+            if (reserva.getAsistentes() > aula.getCapacidad()) {
+                metricas.rechazada(MetricasReservas.CAPACIDAD);
+                throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
+            }
+
+            return ocuparYGuardar(reserva);
+        });
+    }
+
+    @Transactional
+    public Reserva actualizarDesdeRequest(Reserva reservaExistente, ReservaRequest request) {
+        return metricas.medirGuardado("actualizar", () -> {
+            // La posición anterior de la reserva deja de contar (y si cambia de aula, el listado anterior también cambia)
+            LocalDate fechaAnterior = reservaExistente.getFecha();
+            Long aulaAnterior = reservaExistente.getAula().getId();
+            Long horarioAnterior = reservaExistente.getHorario().getId();
+            versiones.reservasCambiadas(aulaAnterior);
+            estadisticas.restar(reservaExistente);
+
+            // Obtener el aula y horario del request
+            Aula aula = serviceAula.obtenerPorId(request.getAulaId())
+                    .orElseThrow(() -> new EntityNotFoundException("Aula no encontrada con id: " + request.getAulaId()));
+
+            Horario horario = Optional.ofNullable(serviceHorario.obtenerPorId(request.getHorarioId()))
+                    .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + request.getHorarioId()));
+
+            // Actualizar los campos de la reserva existente
+            reservaExistente.setAula(aula);
+            reservaExistente.setHorario(horario);
+            reservaExistente.setFecha(request.getFecha());
+            reservaExistente.setMotivo(request.getMotivo());
+            reservaExistente.setAsistentes(request.getAsistentes());
+
+            // Validaciones
+            if (reservaExistente.getAsistentes() > aula.getCapacidad()) {
+                metricas.rechazada(MetricasReservas.CAPACIDAD);
+                throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
+            }
+
+            // Validar solapamientos (sin incluir a sí misma) y guardar
+            Reserva guardada = ocuparYGuardar(reservaExistente);
+            difusion.huecoCambiado(fechaAnterior, aulaAnterior, horarioAnterior);
+            return guardada;
+        });
+    }
+
+    @Transactional
+    public List<ResultadoReservaLote> guardarLote(List<ReservaRequest> requests, UsuarioAutenticado usuarioAutenticado) {
+        Usuario usuario = referencia(usuarioAutenticado);
+
+        // Las aulas y los horarios del lote se cargan con una consulta cada uno (findAllById)
+        Set<Long> aulaIds = requests.stream().map(ReservaRequest::getAulaId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> horarioIds = requests.stream().map(ReservaRequest::getHorarioId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Aula> aulas = serviceAula.obtenerPorIds(aulaIds).stream()
+                .collect(Collectors.toMap(Aula::getId, Function.identity()));
+        Map<Long, Horario> horarios = serviceHorario.obtenerPorIds(horarioIds).stream()
+                .collect(Collectors.toMap(Horario::getId, Function.identity()));
+
+        Reserva[] aceptadas = new Reserva[requests.size()];
+        String[] errores = new String[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            ReservaRequest request = requests.get(i);
+
+            Set<ConstraintViolation<ReservaRequest>> violaciones = validator.validate(request);
+            if (!violaciones.isEmpty()) {
+                errores[i] = violaciones.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                continue;
+            }
+
+            Aula aula = aulas.get(request.getAulaId());
+            Horario horario = horarios.get(request.getHorarioId());
+            if (aula == null) {
+                errores[i] = "Aula no encontrada con id: " + request.getAulaId();
+                continue;
+            }
+            if (horario == null) {
+                errores[i] = "Horario no encontrado con id: " + request.getHorarioId();
+                continue;
+            }
+
+            Reserva reserva = new Reserva();
+            reserva.setAula(aula);
+            reserva.setHorario(horario);
+            reserva.setUsuario(usuario);
+            reserva.setFecha(request.getFecha());
+            reserva.setMotivo(request.getMotivo());
+            reserva.setAsistentes(request.getAsistentes());
+            aceptadas[i] = reserva;
+        }
+
+        ocuparEInsertarLote(aceptadas, errores);
+
+        List<ResultadoReservaLote> resultados = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (aceptadas[i] != null) {
+                resultados.add(new ResultadoReservaLote(i, true, ReservaMapper.toDto(aceptadas[i]), null));
+            } else {
+                resultados.add(new ResultadoReservaLote(i, false, null, errores[i]));
+            }
         }
+        return resultados;
+    }
+
+    // Alta masiva de la importación CSV: cada reserva trae ya su aula, horario y usuario. Mismas reglas que
+    // guardarLote; las posiciones rechazadas quedan a null con su error.
+    @Transactional
+    public void importarLote(Reserva[] reservas, String[] errores) {
+        ocuparEInsertarLote(reservas, errores);
+    }
 
-        if (repository.existsSolapamiento(request.getAulaId(), request.getHorarioId(), request.getFecha())) {
-            throw new IllegalArgumentException("La reserva se solapa con otra reserva existente en el mismo aula y horario.");
+    // Valida cada reserva y ocupa su hueco (los ocupados por reservas anteriores del lote también cuentan como
+    // solapamiento); después inserta las aceptadas con lotes JDBC. Las posiciones null se saltan.
+    private void ocuparEInsertarLote(Reserva[] reservas, String[] errores) {
+        IndiceOcupacion.Ocupacion[] huecos = new IndiceOcupacion.Ocupacion[reservas.length];
+
+        for (int i = 0; i < reservas.length; i++) {
+            Reserva reserva = reservas[i];
+            if (reserva == null) continue;
+
+            try {
+                validarReserva(reserva);
+                huecos[i] = metricas.medirSolapamiento(() -> indiceOcupacion.ocupar(
+                        reserva.getAula().getId(), reserva.getFecha(), reserva.getHorario(), null));
+                difusion.huecoCambiado(reserva);
+            } catch (IllegalArgumentException | ConflictoReservaException e) {
+                if (e instanceof ConflictoReservaException) {
+                    metricas.rechazada(MetricasReservas.SOLAPAMIENTO);
+                }
+                errores[i] = e.getMessage();
+                reservas[i] = null;
+            }
         }
 
-        return repository.save(reserva);
+        insertarEnLote(Arrays.stream(reservas).filter(Objects::nonNull).toList());
+        for (int i = 0; i < reservas.length; i++) {
+            if (reservas[i] != null) {
+                indiceOcupacion.confirmar(huecos[i], reservas[i]);
+            }
+        }
     }
 
     @Transactional
-    public Reserva actualizarDesdeRequest(Reserva reservaExistente, ReservaRequest request) {
-        // Obtener el aula y horario del request
-        Aula aula = repositorioAula.findById(request.getAulaId())
+    public List<Reserva> guardarRecurrente(ReservaRecurrenteRequest request, UsuarioAutenticado usuarioAutenticado) {
+        if (request.getFechaFin().isBefore(request.getFechaInicio())) {
+            throw new IllegalArgumentException("La fecha de fin no puede ser anterior a la fecha de inicio.");
+        }
+
+        Aula aula = serviceAula.obtenerPorId(request.getAulaId())
                 .orElseThrow(() -> new EntityNotFoundException("Aula no encontrada con id: " + request.getAulaId()));
 
-        Horario horario = repositorioHorario.findById(request.getHorarioId())
+        Horario horario = Optional.ofNullable(serviceHorario.obtenerPorId(request.getHorarioId()))
                 .orElseThrow(() -> new EntityNotFoundException("Horario no encontrado con id: " + request.getHorarioId()));
 
-        // Actualizar los campos de la reserva existente
-        reservaExistente.setAula(aula);
-        reservaExistente.setHorario(horario);
-        reservaExistente.setFecha(request.getFecha());
-        reservaExistente.setMotivo(request.getMotivo());
-        reservaExistente.setAsistentes(request.getAsistentes());
+        Usuario usuario = referencia(usuarioAutenticado);
 
-        // Validaciones
-        if (reservaExistente.getAsistentes() > aula.getCapacidad()) {
+        if (request.getAsistentes() > aula.getCapacidad()) {
+            metricas.rechazada(MetricasReservas.CAPACIDAD);
             throw new IllegalArgumentException("El número de asistentes supera la capacidad del aula.");
         }
 
-        // Validar solapamientos (sin incluir a sí misma)
-        List<Reserva> reservasAula = repository.getReservaByAula_Id(aula.getId());
-        for (Reserva rExistente : reservasAula) {
-            // Ignorar la misma reserva que se está actualizando
-            if (reservaExistente.getId().equals(rExistente.getId())) {
-                continue;
-            }
-            
-            if (rExistente.getFecha().isEqual(reservaExistente.getFecha())) {
-                Horario hExistente = rExistente.getHorario();
-                Horario hNuevo = reservaExistente.getHorario();
-
-                if (hExistente != null && hNuevo != null) {
-                    if (hNuevo.seSolapaCon(hExistente)) {
-                        throw new IllegalArgumentException("La reserva se solapa con otra reserva existente en el mismo aula y horario.");
-                    }
+        List<LocalDate> fechas = expandirFechas(request, horario);
+        if (fechas.isEmpty()) {
+            throw new IllegalArgumentException("La recurrencia no genera ninguna fecha.");
+        }
+
+        // Una sola consulta con todo el rango en lugar de una comprobación por fecha
+        Map<LocalDate, List<Horario>> ocupadas = repository
+                .findByAulaEnRango(aula.getId(), fechas.get(0), fechas.get(fechas.size() - 1)).stream()
+                .collect(Collectors.groupingBy(Reserva::getFecha,
+                        Collectors.mapping(Reserva::getHorario, Collectors.toList())));
+
+        List<LocalDate> conflictos = fechas.stream()
+                .filter(fecha -> ocupadas.getOrDefault(fecha, List.of()).stream().anyMatch(horario::seSolapaCon))
+                .toList();
+        if (!conflictos.isEmpty()) {
+            metricas.rechazada(MetricasReservas.SOLAPAMIENTO);
+            throw new ConflictoReservaException("La reserva se solapa con otras reservas existentes en las fechas: " +
+                    conflictos.stream().map(LocalDate::toString).collect(Collectors.joining(", ")));
+        }
+
+        List<Reserva> reservas = new ArrayList<>(fechas.size());
+        List<IndiceOcupacion.Ocupacion> huecos = new ArrayList<>(fechas.size());
+        for (LocalDate fecha : fechas) {
+            huecos.add(indiceOcupacion.ocupar(aula.getId(), fecha, horario, null));
+            difusion.huecoCambiado(fecha, aula.getId(), horario.getId());
+
+            Reserva reserva = new Reserva();
+            reserva.setAula(aula);
+            reserva.setHorario(horario);
+            reserva.setUsuario(usuario);
+            reserva.setFecha(fecha);
+            reserva.setMotivo(request.getMotivo());
+            reserva.setAsistentes(request.getAsistentes());
+            reservas.add(reserva);
+        }
+
+        insertarEnLote(reservas);
+        for (int i = 0; i < reservas.size(); i++) {
+            indiceOcupacion.confirmar(huecos.get(i), reservas.get(i));
+        }
+        return reservas;
+    }
+
+    // Fechas concretas de la recurrencia: el día de la semana lo marca el horario
+    private List<LocalDate> expandirFechas(ReservaRecurrenteRequest request, Horario horario) {
+        Set<LocalDate> excepciones = request.getExcepciones() == null
+                ? Set.of()
+                : Set.copyOf(request.getExcepciones());
+
+        List<LocalDate> fechas = new ArrayList<>();
+        LocalDate fecha = request.getFechaInicio()
+                .with(TemporalAdjusters.nextOrSame(horario.getDiaSemana().toDayOfWeek()));
+
+        while (!fecha.isAfter(request.getFechaFin())) {
+            if (!excepciones.contains(fecha)) {
+                fechas.add(fecha);
+                if (fechas.size() > MAX_REPETICIONES) {
+                    throw new IllegalArgumentException("La recurrencia no puede generar más de " + MAX_REPETICIONES + " reservas.");
                 }
             }
+            fecha = fecha.plusWeeks(request.getFrecuencia().getSemanas());
         }
-
-        return repository.save(reservaExistente);
+        return fechas;
     }
 }
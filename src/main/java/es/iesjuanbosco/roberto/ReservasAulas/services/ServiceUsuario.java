@@ -15,6 +15,7 @@ import java.util.Optional;
 public class ServiceUsuario {
     private final RepositorioUsuario repo;
     private final PasswordEncoder passwordEncoder;
+    private final VersionesColecciones versiones;
 
     public Usuario registrar(RegisterRequest req) {
         if (repo.findByEmail(req.email()).isPresent()) {
@@ -44,23 +45,21 @@ public class ServiceUsuario {
         if (cambios.getEmail() != null) u.setEmail(cambios.getEmail());
         if (cambios.getRoles() != null) u.setRoles(cambios.getRoles());
         u.setEnabled(cambios.isEnabled());
-        return repo.save(u);
+        Usuario guardado = repo.save(u);
+        versiones.usuariosCambiados();
+        return guardado;
     }
 
     public void deleteUsuario(Long id) {
         repo.deleteById(id);
+        versiones.usuariosCambiados();
     }
 
-    public boolean comprobarPasswordPorEmail(String email, String passwordPlain) {
-        Usuario u = repo.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        return passwordEncoder.matches(passwordPlain, u.getPassword());
-    }
-
-    public Usuario cambiarPasswordPorEmail(String email, String nuevaPwd) {
-        Usuario u = repo.findByEmail(email)
+    // La nueva contraseña llega ya cifrada: el hash se calcula en ServiceContrasenas, fuera de la transacción
+    public Usuario cambiarPassword(Long id, String hash) {
+        Usuario u = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        u.setPassword(passwordEncoder.encode(nuevaPwd));
+        u.setPassword(hash);
         return repo.save(u);
     }
 }
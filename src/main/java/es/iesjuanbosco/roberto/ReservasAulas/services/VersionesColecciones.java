@@ -0,0 +1,80 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.config.TrasConfirmar;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de cada colección que consulta el frontend de forma periódica: el catálogo de aulas, el de horarios y
+ * las reservas de cada aula. Cada escritura confirmada incrementa la versión de lo que ha cambiado, y los
+ * controladores usan las versiones como ETag para responder 304 sin consultar la base de datos ni serializar nada.
+ * <p>
+ * Las versiones se incrementan después del commit: quien lee la versión antes de cargar los datos nunca puede
+ * asociar datos antiguos a una versión nueva. El instante de arranque forma parte del ETag para que un reinicio
+ * (que vuelve a empezar en 0) no dé por buenos los ETag anteriores.
+ * <p>
+ * Las versiones se guardan en memoria y solo cuentan las escrituras de esta instancia: con varias instancias de la
+ * API detrás de un balanceador, un cambio hecho en otra no invalida los ETag de esta.
+ */
+@Component
+public class VersionesColecciones {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong aulas = new AtomicLong();
+    private final AtomicLong horarios = new AtomicLong();
+    private final AtomicLong usuarios = new AtomicLong();
+
+    // id de aula -> versión de sus reservas
+    private final Map<Long, AtomicLong> reservasPorAula = new ConcurrentHashMap<>();
+
+    // Cada filtro del listado (capacidad u ordenadores) es una respuesta distinta del mismo catálogo
+    public String etagAulas(String filtro) {
+        return etag("a" + filtro, aulas.get());
+    }
+
+    public String etagHorarios() {
+        return etag("h", horarios.get());
+    }
+
+    // Cada reserva incluye el nombre del aula, las horas del horario y el email del usuario, así que el listado
+    // también cambia cuando cambia cualquiera de los tres
+    public String etagReservasAula(Long aulaId) {
+        return etag("r" + aulaId, versionReservasAula(aulaId));
+    }
+
+    // El cuadrante semanal depende de lo mismo; la semana va en el ETag porque sin fecha se sirve la semana en
+    // curso, que cambia aunque no cambie nada más
+    public String etagSemanaAula(Long aulaId, LocalDate lunes) {
+        return etag("s" + aulaId + "-" + lunes, versionReservasAula(aulaId));
+    }
+
+    public void aulasCambiadas() {
+        TrasConfirmar.ejecutar(aulas::incrementAndGet);
+    }
+
+    public void horariosCambiados() {
+        TrasConfirmar.ejecutar(horarios::incrementAndGet);
+    }
+
+    public void usuariosCambiados() {
+        TrasConfirmar.ejecutar(usuarios::incrementAndGet);
+    }
+
+    public void reservasCambiadas(Long aulaId) {
+        TrasConfirmar.ejecutar(() -> reservasPorAula.computeIfAbsent(aulaId, id -> new AtomicLong()).incrementAndGet());
+    }
+
+    private String versionReservasAula(Long aulaId) {
+        AtomicLong reservas = reservasPorAula.get(aulaId);
+        return (reservas != null ? reservas.get() : 0) + "." + aulas.get() + "." + horarios.get() + "." + usuarios.get();
+    }
+
+    private String etag(String coleccion, Object version) {
+        return "\"" + coleccion + "-" + arranque + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,30 @@
+-- ============================================
+-- DATOS DE EJEMPLO
+-- Solo se insertan si la tabla está vacía, así que se puede volver a ejecutar sin duplicar nada.
+-- Solo se cargan con el perfil datos-ejemplo (application-datos-ejemplo.properties).
+-- ============================================
+
+-- AULAS DE PRUEBA
+INSERT INTO aulas (nombre, capacidad, es_ordenadores)
+SELECT nombre, capacidad, es_ordenadores FROM (
+    SELECT 'Aula 101' AS nombre, 30 AS capacidad, FALSE AS es_ordenadores
+    UNION ALL SELECT 'Aula Informática 1', 25, TRUE
+    UNION ALL SELECT 'Aula Informática 2', 25, TRUE
+    UNION ALL SELECT 'Aula Magna', 100, FALSE
+    UNION ALL SELECT 'Laboratorio', 20, FALSE
+) datos
+WHERE NOT EXISTS (SELECT 1 FROM aulas);
+
+-- HORARIOS DE PRUEBA
+INSERT INTO horarios (dia_semana, hora_inicio, hora_fin)
+SELECT dia_semana, hora_inicio, hora_fin FROM (
+    SELECT 'LUNES' AS dia_semana, TIME '08:00:00' AS hora_inicio, TIME '09:00:00' AS hora_fin
+    UNION ALL SELECT 'LUNES', TIME '09:00:00', TIME '10:00:00'
+    UNION ALL SELECT 'LUNES', TIME '10:00:00', TIME '11:00:00'
+    UNION ALL SELECT 'MARTES', TIME '08:00:00', TIME '09:00:00'
+    UNION ALL SELECT 'MARTES', TIME '09:00:00', TIME '10:00:00'
+    UNION ALL SELECT 'MIERCOLES', TIME '08:00:00', TIME '09:00:00'
+    UNION ALL SELECT 'JUEVES', TIME '08:00:00', TIME '09:00:00'
+    UNION ALL SELECT 'VIERNES', TIME '08:00:00', TIME '09:00:00'
+) datos
+WHERE NOT EXISTS (SELECT 1 FROM horarios);
@@ -0,0 +1,46 @@
+-- ============================================
+-- ESQUEMA INICIAL
+-- Las mismas tablas que generaba Hibernate con ddl-auto=update. Las bases de datos creadas así se marcan
+-- como versión 1 al arrancar (spring.flyway.baseline-on-migrate) y solo aplican las migraciones siguientes.
+-- ============================================
+
+CREATE TABLE aulas (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    nombre         VARCHAR(255),
+    capacidad      INT,
+    es_ordenadores BOOLEAN,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE horarios (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    dia_semana  VARCHAR(20),
+    hora_inicio TIME,
+    hora_fin    TIME,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE usuarios (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    roles    VARCHAR(255),
+    enabled  BOOLEAN      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuarios_email UNIQUE (email)
+);
+
+CREATE TABLE reservas (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    fecha          DATE,
+    motivo         VARCHAR(255),
+    asistentes     INT,
+    fecha_creacion DATE,
+    aula_id        BIGINT       NOT NULL,
+    horario_id     BIGINT       NOT NULL,
+    usuario_id     BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reservas_aula FOREIGN KEY (aula_id) REFERENCES aulas (id),
+    CONSTRAINT fk_reservas_horario FOREIGN KEY (horario_id) REFERENCES horarios (id),
+    CONSTRAINT fk_reservas_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
@@ -0,0 +1,12 @@
+-- ============================================
+-- ÍNDICES PARA LAS CONSULTAS DE RESERVAS
+-- En InnoDB cada índice secundario lleva detrás la clave primaria, así que (fecha) sirve también como
+-- (fecha, id), el orden de la paginación por cursor.
+-- ============================================
+
+-- "Mis reservas": listado filtrado por usuario y ordenado por (fecha, id). Sustituye al índice que MySQL
+-- crea por su cuenta para la clave ajena usuario_id
+CREATE INDEX idx_reservas_usuario_fecha ON reservas (usuario_id, fecha);
+
+-- Listado general por (fecha, id), filtros desde/hasta y carga del índice de ocupación (fecha >= hoy)
+CREATE INDEX idx_reservas_fecha ON reservas (fecha);
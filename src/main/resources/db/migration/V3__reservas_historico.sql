@@ -0,0 +1,27 @@
+-- ============================================
+-- HISTÓRICO DE RESERVAS
+-- Las reservas pasadas ya no se modifican: ArchivoReservas las mueve aquí por lotes para que la tabla
+-- reservas y sus índices solo contengan el periodo vigente. Mismas columnas que reservas y el mismo id, así
+-- que no es AUTO_INCREMENT.
+-- ============================================
+
+CREATE TABLE reservas_historico (
+    id             BIGINT       NOT NULL,
+    fecha          DATE,
+    motivo         VARCHAR(255),
+    asistentes     INT,
+    fecha_creacion DATE,
+    aula_id        BIGINT       NOT NULL,
+    horario_id     BIGINT       NOT NULL,
+    usuario_id     BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    -- Al borrar un aula se borran también sus reservas archivadas, como las vigentes (Aula.reservas)
+    CONSTRAINT fk_reservas_historico_aula FOREIGN KEY (aula_id) REFERENCES aulas (id) ON DELETE CASCADE,
+    CONSTRAINT fk_reservas_historico_horario FOREIGN KEY (horario_id) REFERENCES horarios (id),
+    CONSTRAINT fk_reservas_historico_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+);
+
+-- Los mismos filtros que el listado de reservas, que ordena por (fecha, id)
+CREATE INDEX idx_reservas_historico_aula_fecha ON reservas_historico (aula_id, fecha);
+CREATE INDEX idx_reservas_historico_usuario_fecha ON reservas_historico (usuario_id, fecha);
+CREATE INDEX idx_reservas_historico_fecha ON reservas_historico (fecha);
@@ -0,0 +1,41 @@
+-- ============================================
+-- UN AULA, UNA RESERVA POR FECHA Y HORARIO
+-- Va en su propia migración y no en V1: las bases de datos creadas con ddl-auto=update se marcan como versión 1
+-- sin ejecutarla, y también necesitan la restricción. Antes hay que apartar los duplicados que pudieron entrar
+-- cuando no existía: no se pierden, quedan en reservas_duplicadas para que se revisen.
+-- ============================================
+
+-- Las reservas que sobran de cada hueco repetido, con la que se conservó en su lugar (la de id más bajo). Sin
+-- claves ajenas: es una tabla para revisar a mano, que no debe impedir borrar aulas, horarios o usuarios
+CREATE TABLE reservas_duplicadas (
+    id             BIGINT       NOT NULL,
+    fecha          DATE,
+    motivo         VARCHAR(255),
+    asistentes     INT,
+    fecha_creacion DATE,
+    aula_id        BIGINT       NOT NULL,
+    horario_id     BIGINT       NOT NULL,
+    usuario_id     BIGINT       NOT NULL,
+    conservada_id  BIGINT       NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO reservas_duplicadas (id, fecha, motivo, asistentes, fecha_creacion, aula_id, horario_id, usuario_id,
+                                 conservada_id)
+SELECT r.id, r.fecha, r.motivo, r.asistentes, r.fecha_creacion, r.aula_id, r.horario_id, r.usuario_id,
+       (SELECT MIN(primera.id)
+        FROM reservas primera
+        WHERE primera.aula_id = r.aula_id AND primera.fecha = r.fecha AND primera.horario_id = r.horario_id)
+FROM reservas r
+WHERE EXISTS (SELECT 1
+              FROM reservas primera
+              WHERE primera.aula_id = r.aula_id AND primera.fecha = r.fecha AND primera.horario_id = r.horario_id
+                AND primera.id < r.id);
+
+-- Ya copiadas, salen de reservas
+DELETE FROM reservas WHERE id IN (SELECT id FROM reservas_duplicadas);
+
+-- Reserva.RESTRICCION_HUECO: respaldo de IndiceOcupacion para el mismo hueco exacto. No detecta horarios distintos
+-- que se solapan; eso solo lo comprueba el índice, que es de cada instancia de la API.
+-- Es también el índice de existsSolapamiento y findByAulaEnRango: aula_id, y después fecha exacta o rango
+ALTER TABLE reservas ADD CONSTRAINT uk_reserva_aula_fecha_horario UNIQUE (aula_id, fecha, horario_id);
@@ -0,0 +1,68 @@
+package es.iesjuanbosco.roberto.ReservasAulas.beans;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Misma semántica que la antigua CopiarClase: se copian los valores no nulos y el resto se conserva
+class CopiadorPropiedadesTest {
+
+    @Test
+    void copiaSoloLasPropiedadesNoNulas() {
+        Aula destino = Aula.builder().id(7L).nombre("Aula 104").capacidad(25).esOrdenadores(true).build();
+        Aula cambios = Aula.builder().nombre("Aula 204").capacidad(32).build();
+
+        CopiadorPropiedades.para(Aula.class).copiarNoNulos(destino, cambios);
+
+        assertThat(destino.getId()).isEqualTo(7L);
+        assertThat(destino.getNombre()).isEqualTo("Aula 204");
+        assertThat(destino.getCapacidad()).isEqualTo(32);
+        assertThat(destino.getEsOrdenadores()).isTrue();
+    }
+
+    @Test
+    void copiaReferenciasYFechasDeLaReserva() {
+        Horario horario = Horario.builder().id(3L).diaSemana(DiaSemana.MARTES)
+                .horaInicio(LocalTime.of(9, 0)).horaFin(LocalTime.of(10, 0)).build();
+        Reserva destino = Reserva.builder().id(1L).fecha(LocalDate.of(2025, 10, 7)).motivo("Tutoría").asistentes(5).build();
+        Reserva cambios = Reserva.builder().fecha(LocalDate.of(2025, 10, 14)).horario(horario).build();
+
+        CopiadorPropiedades.para(Reserva.class).copiarNoNulos(destino, cambios);
+
+        assertThat(destino.getId()).isEqualTo(1L);
+        assertThat(destino.getFecha()).isEqualTo(LocalDate.of(2025, 10, 14));
+        assertThat(destino.getMotivo()).isEqualTo("Tutoría");
+        assertThat(destino.getAsistentes()).isEqualTo(5);
+        assertThat(destino.getHorario()).isSameAs(horario);
+    }
+
+    // Las propiedades primitivas nunca son null, así que siempre se copian (igual que con beanutils)
+    @Test
+    void lasPropiedadesPrimitivasSeCopianSiempre() {
+        Usuario destino = new Usuario();
+        destino.setEmail("profesor@iesjuanbosco.es");
+        destino.setEnabled(true);
+        Usuario cambios = new Usuario();
+        cambios.setEnabled(false);
+
+        CopiadorPropiedades.para(Usuario.class).copiarNoNulos(destino, cambios);
+
+        assertThat(destino.getEmail()).isEqualTo("profesor@iesjuanbosco.es");
+        assertThat(destino.isEnabled()).isFalse();
+        assertThat(CopiadorPropiedades.para(Usuario.class).nombresPropiedades())
+                .containsExactlyInAnyOrder("email", "enabled", "id", "password", "roles");
+    }
+
+    @Test
+    void elCopiadorSeCreaUnaVezPorTipo() {
+        assertThat(CopiadorPropiedades.para(Horario.class)).isSameAs(CopiadorPropiedades.para(Horario.class));
+    }
+}
@@ -0,0 +1,38 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las métricas solo se leen sin token por el puerto de gestión; por el de la API (o sin puerto aparte) piden ADMIN
+class AccesoMetricasTest {
+
+    private static final int API = 10000;
+    private static final int GESTION = 8081;
+
+    @Test
+    void sinTokenSoloPorElPuertoDeGestion() {
+        RequestMatcher metricas = SecurityConfig.metricasEnPuertoDeGestion(GESTION, API);
+
+        assertThat(metricas.matches(peticion("GET", "/actuator/prometheus", GESTION))).isTrue();
+        assertThat(metricas.matches(peticion("GET", "/actuator/prometheus", API))).isFalse();
+        assertThat(metricas.matches(peticion("POST", "/actuator/prometheus", GESTION))).isFalse();
+        assertThat(metricas.matches(peticion("GET", "/actuator/env", GESTION))).isFalse();
+    }
+
+    @Test
+    void sinPuertoDeGestionAparteNuncaSonPublicas() {
+        assertThat(SecurityConfig.metricasEnPuertoDeGestion(-1, API)
+                .matches(peticion("GET", "/actuator/prometheus", API))).isFalse();
+        assertThat(SecurityConfig.metricasEnPuertoDeGestion(API, API)
+                .matches(peticion("GET", "/actuator/prometheus", API))).isFalse();
+    }
+
+    private static MockHttpServletRequest peticion(String metodo, String ruta, int puerto) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest(metodo, ruta);
+        peticion.setLocalPort(puerto);
+        return peticion;
+    }
+}
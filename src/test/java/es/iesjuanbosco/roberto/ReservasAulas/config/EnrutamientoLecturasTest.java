@@ -0,0 +1,118 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dos bases de datos en memoria hacen de principal y réplica; cada una dice quién es en la tabla origen
+class EnrutamientoLecturasTest {
+
+    private static final String SERVICIO = "es.iesjuanbosco.roberto.ReservasAulas.services.ServiceReserva.obtenerPagina";
+    private static final String SPRING_DATA = "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findAll";
+
+    private final EmbeddedDatabase principal = base("principal");
+    private final EmbeddedDatabase replica = base("replica");
+
+    @AfterEach
+    void cerrar() {
+        SecurityContextHolder.clearContext();
+        principal.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void lasLecturasDeLosServiciosVanALaReplica() {
+        Enrutado enrutado = new Enrutado(Duration.ofMinutes(1));
+
+        assertThat(enrutado.leer(SERVICIO)).isEqualTo("replica");
+        // Las transacciones implícitas de los repositorios y lo que va sin transacción siguen en la principal
+        assertThat(enrutado.leer(SPRING_DATA)).isEqualTo("principal");
+        assertThat(enrutado.jdbc.queryForObject("SELECT nombre FROM origen", String.class)).isEqualTo("principal");
+    }
+
+    @Test
+    void quienAcabaDeEscribirLeeDeLaPrincipalDuranteLaVentana() {
+        Enrutado enrutado = new Enrutado(Duration.ofMinutes(1));
+
+        como("profesor@iesjuanbosco.es");
+        enrutado.escribir();
+        assertThat(enrutado.leer(SERVICIO)).isEqualTo("principal");
+
+        como("otro@iesjuanbosco.es");
+        assertThat(enrutado.leer(SERVICIO)).isEqualTo("replica");
+    }
+
+    @Test
+    void unaEscrituraDeshechaNoAbreLaVentana() {
+        Enrutado enrutado = new Enrutado(Duration.ofMinutes(1));
+
+        como("profesor@iesjuanbosco.es");
+        enrutado.transaccion.executeWithoutResult(estado -> {
+            enrutado.jdbc.update("UPDATE origen SET nombre = nombre");
+            estado.setRollbackOnly();
+        });
+        assertThat(enrutado.leer(SERVICIO)).isEqualTo("replica");
+    }
+
+    @Test
+    void sinVentanaSeLeeSiempreDeLaReplica() {
+        Enrutado enrutado = new Enrutado(Duration.ZERO);
+
+        como("profesor@iesjuanbosco.es");
+        enrutado.escribir();
+        assertThat(enrutado.leer(SERVICIO)).isEqualTo("replica");
+    }
+
+    private class Enrutado {
+
+        final JdbcTemplate jdbc;
+        final TransactionTemplate transaccion;
+
+        Enrutado(Duration ventana) {
+            DataSource dataSource = new LazyConnectionDataSourceProxy(
+                    new DataSourceEnrutado(principal, replica, new ConsistenciaLecturas(ventana)));
+            jdbc = new JdbcTemplate(dataSource);
+            transaccion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        void escribir() {
+            transaccion.executeWithoutResult(estado -> jdbc.update("UPDATE origen SET nombre = nombre"));
+        }
+
+        String leer(String nombreTransaccion) {
+            TransactionTemplate lectura = new TransactionTemplate(transaccion.getTransactionManager());
+            lectura.setReadOnly(true);
+            lectura.setName(nombreTransaccion);
+            return lectura.execute(estado -> jdbc.queryForObject("SELECT nombre FROM origen", String.class));
+        }
+    }
+
+    private static EmbeddedDatabase base(String nombre) {
+        EmbeddedDatabase base = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(base).execute("CREATE TABLE origen (nombre VARCHAR(20))");
+        new JdbcTemplate(base).update("INSERT INTO origen VALUES (?)", nombre);
+        return base;
+    }
+
+    private static void como(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
@@ -0,0 +1,195 @@
+package es.iesjuanbosco.roberto.ReservasAulas.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.services.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// La caché solo puede devolver tokens que el decodificador real aceptaría
+class JwtDecoderConCacheTest {
+
+    private final JwtService jwtService = new JwtService();
+    private final RelojManual reloj = new RelojManual(Instant.now());
+    private final AtomicInteger verificaciones = new AtomicInteger();
+
+    private JwtDecoderConCache decoder;
+    private String token;
+
+    @BeforeEach
+    void preparar() {
+        NimbusJwtDecoder nimbus = NimbusJwtDecoder.withSecretKey(jwtService.getSecretKey()).build();
+        JwtTimestampValidator fechas = new JwtTimestampValidator(Duration.ZERO);
+        fechas.setClock(reloj);
+        nimbus.setJwtValidator(fechas);
+
+        JwtDecoder contado = valor -> {
+            verificaciones.incrementAndGet();
+            return nimbus.decode(valor);
+        };
+        decoder = new JwtDecoderConCache(contado, 100, reloj, reloj::nanos);
+
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setRoles("ROLE_PROFESOR");
+        token = jwtService.generateToken(
+                UsernamePasswordAuthenticationToken.authenticated(usuario, null, usuario.getAuthorities()));
+    }
+
+    @Test
+    void unTokenVerificadoNoSeVuelveAVerificar() {
+        Jwt primero = decoder.decode(token);
+        for (int i = 0; i < 100; i++) {
+            assertThat(decoder.decode(token)).isSameAs(primero);
+        }
+
+        assertThat(verificaciones).hasValue(1);
+        assertThat(decoder.estadisticas().hitCount()).isEqualTo(100);
+    }
+
+    @Test
+    void unTokenAlteradoSeRechazaAunqueElOriginalEsteEnCache() {
+        decoder.decode(token);
+
+        String[] partes = token.split("\\.");
+        String payloadAlterado = partes[1].substring(0, partes[1].length() - 2)
+                + (partes[1].endsWith("A") ? "B" : "A") + partes[1].charAt(partes[1].length() - 1);
+        // El último carácter de la firma lleva bits de relleno: cambiarlo puede no alterar los bytes decodificados
+        String firmaAlterada = (partes[2].startsWith("A") ? "B" : "A") + partes[2].substring(1);
+
+        assertThatThrownBy(() -> decoder.decode(partes[0] + "." + payloadAlterado + "." + partes[2]))
+                .isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode(partes[0] + "." + partes[1] + "." + firmaAlterada))
+                .isInstanceOf(BadJwtException.class);
+        assertThat(decoder.tokensEnCache()).isEqualTo(1);
+    }
+
+    @Test
+    void unTokenExpiradoSaleDeLaCacheYSeRechaza() {
+        Jwt jwt = decoder.decode(token);
+
+        reloj.avanzar(Duration.between(reloj.instant(), jwt.getExpiresAt()).plusSeconds(1));
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtValidationException.class);
+        assertThat(verificaciones).hasValue(2);
+        assertThat(decoder.tokensEnCache()).isZero();
+    }
+
+    @Test
+    void unTokenRevocadoSeRechazaHastaQueExpira() {
+        Jwt jwt = decoder.decode(token);
+
+        decoder.revocar(jwt);
+
+        assertThatThrownBy(() -> decoder.decode(token))
+                .isInstanceOf(BadJwtException.class)
+                .hasMessageContaining("revocado");
+        assertThat(decoder.tokensEnCache()).isZero();
+
+        // Una vez expirado ya no hace falta recordar la revocación: el token se rechaza por su exp
+        reloj.avanzar(Duration.between(reloj.instant(), jwt.getExpiresAt()).plusSeconds(1));
+        assertThat(decoder.tokensRevocados()).isZero();
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtValidationException.class);
+    }
+
+    @Test
+    void unTokenRevocadoSeRechazaConCualquierCodificacionDeLaFirma() {
+        // Los dos bits de relleno del último carácter de la firma no cuentan: son el mismo token
+        String enCache = conRelleno(token, 1);
+        String nueva = conRelleno(token, 2);
+        assertThat(enCache).isNotEqualTo(token);
+        assertThat(decoder.decode(enCache).getId()).isNotNull().isEqualTo(decoder.decode(token).getId());
+
+        decoder.revocar(decoder.decode(token));
+
+        assertThatThrownBy(() -> decoder.decode(enCache))
+                .isInstanceOf(BadJwtException.class)
+                .hasMessageContaining("revocado");
+        assertThatThrownBy(() -> decoder.decode(nueva))
+                .isInstanceOf(BadJwtException.class)
+                .hasMessageContaining("revocado");
+    }
+
+    @Test
+    void lasMetricasDistinguenTokensDeCacheYVerificados() {
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        decoder.bindTo(registro);
+
+        decoder.decode(token);
+        decoder.decode(token);
+        decoder.decode(token);
+        assertThatThrownBy(() -> decoder.decode("no.es.un-token")).isInstanceOf(BadJwtException.class);
+
+        assertThat(registro.get("jwt.decodificacion").tag("origen", "verificado").timer().count()).isEqualTo(1);
+        assertThat(registro.get("jwt.decodificacion").tag("origen", "cache").timer().count()).isEqualTo(2);
+        assertThat(registro.get("jwt.decodificacion").tag("origen", "rechazado").timer().count()).isEqualTo(1);
+        assertThat(registro.get("cache.gets").tag("cache", "tokens").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    // Cambia los bits de relleno del último carácter base64url (una firma HS256 de 32 bytes deja dos)
+    private static String conRelleno(String token, int bits) {
+        String alfabeto = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char ultimo = token.charAt(token.length() - 1);
+        return token.substring(0, token.length() - 1) + alfabeto.charAt(alfabeto.indexOf(ultimo) ^ bits);
+    }
+
+    // Reloj y ticker de Caffeine que avanzan juntos a mano
+    private static final class RelojManual extends Clock implements Ticker {
+
+        private final Instant inicio;
+        private final AtomicLong transcurrido = new AtomicLong();
+
+        RelojManual(Instant inicio) {
+            this.inicio = inicio;
+        }
+
+        void avanzar(Duration duracion) {
+            transcurrido.addAndGet(duracion.toNanos());
+        }
+
+        long nanos() {
+            return transcurrido.get();
+        }
+
+        @Override
+        public long read() {
+            return nanos();
+        }
+
+        @Override
+        public Instant instant() {
+            return inicio.plusNanos(transcurrido.get());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceAula;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.services.VersionesColecciones;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Un sondeo con el ETag vigente se responde 304 sin llegar a los servicios; cualquier cambio confirmado lo invalida
+class ConsultasCondicionalesTest {
+
+    private final ServiceHorario serviceHorario = mock(ServiceHorario.class);
+    private final ServiceAula serviceAula = mock(ServiceAula.class);
+    private final VersionesColecciones versiones = new VersionesColecciones();
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void preparar() {
+        mvc = MockMvcBuilders.standaloneSetup(
+                new ControllerHorario(serviceHorario, versiones),
+                new ControllerAula(serviceAula, versiones)).build();
+        when(serviceHorario.obtenerTodas()).thenReturn(List.of(Horario.builder().id(1L).diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build()));
+    }
+
+    @Test
+    void conElMismoEtagSeResponde304SinConsultarElServicio() throws Exception {
+        String etag = mvc.perform(get("/horarios"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mvc.perform(get("/horarios").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(serviceHorario, times(1)).obtenerTodas();
+    }
+
+    @Test
+    void unCambioInvalidaElEtag() throws Exception {
+        String etag = mvc.perform(get("/horarios")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        versiones.horariosCambiados();
+
+        String nuevo = mvc.perform(get("/horarios").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(nuevo).isNotEqualTo(etag);
+    }
+
+    // El ETag del catálogo completo no vale para un listado filtrado, ni el de un filtro para otro
+    @Test
+    void cadaFiltroDeAulasTieneSuPropioEtag() throws Exception {
+        String todas = mvc.perform(get("/aulas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String conCapacidad = mvc.perform(get("/aulas").param("capacidad", "30"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/aulas").param("capacidad", "30").header(HttpHeaders.IF_NONE_MATCH, todas))
+                .andExpect(status().isOk());
+        mvc.perform(get("/aulas").param("capacidad", "40").header(HttpHeaders.IF_NONE_MATCH, conCapacidad))
+                .andExpect(status().isOk());
+        mvc.perform(get("/aulas").param("esOrdenadores", "true").header(HttpHeaders.IF_NONE_MATCH, todas))
+                .andExpect(status().isOk());
+        mvc.perform(get("/aulas").param("capacidad", "30").header(HttpHeaders.IF_NONE_MATCH, conCapacidad))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void lasReservasDeCadaAulaTienenSuPropiaVersion() throws Exception {
+        String aula1 = mvc.perform(get("/aulas/1/reservas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String aula2 = mvc.perform(get("/aulas/2/reservas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        versiones.reservasCambiadas(1L);
+
+        mvc.perform(get("/aulas/1/reservas").header(HttpHeaders.IF_NONE_MATCH, aula1))
+                .andExpect(status().isOk());
+        mvc.perform(get("/aulas/2/reservas").header(HttpHeaders.IF_NONE_MATCH, aula2))
+                .andExpect(status().isNotModified());
+
+        // El listado incluye las horas de cada horario, así que también depende del catálogo de horarios
+        versiones.horariosCambiados();
+        mvc.perform(get("/aulas/2/reservas").header(HttpHeaders.IF_NONE_MATCH, aula2))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void dentroDeUnaTransaccionLaVersionCambiaAlConfirmar() {
+        String etag = versiones.etagHorarios();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versiones.horariosCambiados();
+            assertThat(versiones.etagHorarios()).isEqualTo(etag);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(versiones.etagHorarios()).isNotEqualTo(etag);
+    }
+}
@@ -0,0 +1,58 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.GlobalExceptionHandler;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ArchivoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHistorico;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceReserva;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La exportación se escribe en streaming; un formato desconocido es un 400
+class ExportacionReservasTest {
+
+    private final ServiceExportacion serviceExportacion = mock(ServiceExportacion.class);
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new ControllerReserva(mock(ServiceReserva.class),
+                    serviceExportacion, mock(ServiceHistorico.class), mock(ArchivoReservas.class)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void elCsvSeEscribeEnLaRespuesta() throws Exception {
+        doAnswer(invocacion -> {
+            OutputStream salida = invocacion.getArgument(0);
+            salida.write("id,fecha\n1,2026-10-19\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(serviceExportacion).exportarCsv(any());
+
+        MvcResult resultado = mvc.perform(get("/reservas/exportar").param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,fecha\n1,2026-10-19\n"));
+    }
+
+    @Test
+    void unFormatoDesconocidoEsUn400() throws Exception {
+        mvc.perform(get("/reservas/exportar").param("formato", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Formato no soportado: xml. Use ndjson o csv."));
+    }
+}
@@ -0,0 +1,174 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import com.jayway.jsonpath.JsonPath;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.GlobalExceptionHandler;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ArchivoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.DifusionOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.EstadisticasOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.IndiceOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.MetricasReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceAula;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHistorico;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.services.VersionesColecciones;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Paginación por clave (fecha, id): recorrer las páginas con el cursor devuelve cada reserva una sola vez y en orden
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ServiceReserva.class, ServiceAula.class, ServiceHorario.class, IndiceOcupacion.class,
+        VersionesColecciones.class, EstadisticasOcupacion.class, MetricasReservas.class, SimpleMeterRegistry.class})
+class PaginacionReservasTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private ServiceReserva serviceReserva;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @MockitoBean
+    private DifusionOcupacion difusion;
+
+    private MockMvc mvc;
+    private Aula aula;
+
+    // En orden de (fecha, id)
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void crearDatos() {
+        mvc = MockMvcBuilders.standaloneSetup(new ControllerReserva(serviceReserva, mock(ServiceExportacion.class),
+                        mock(ServiceHistorico.class), mock(ArchivoReservas.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        aula = em.persist(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        Aula otraAula = em.persist(Aula.builder().nombre("Aula Magna").capacidad(100).esOrdenadores(false).build());
+        Horario horario = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Horario otroHorario = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(9, 0)).horaFin(LocalTime.of(10, 0)).build());
+        Usuario usuario = new Usuario();
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setPassword("x");
+        usuario.setRoles("ROLE_PROFESOR");
+        em.persist(usuario);
+
+        // Cinco reservas del aula en tres fechas: las de una misma fecha se ordenan por id. Otra en la otra aula
+        // en medio, que el filtro debe saltarse en cualquier página
+        LocalDate[] fechas = {HOY.plusDays(1), HOY.plusDays(1), HOY.plusDays(2), HOY.plusDays(3), HOY.plusDays(3)};
+        for (int i = 0; i < fechas.length; i++) {
+            ids.add(em.persist(Reserva.builder().fecha(fechas[i]).motivo("Clase " + i).asistentes(10).aula(aula)
+                    .horario(i % 2 == 0 ? horario : otroHorario).usuario(usuario).build()).getId());
+        }
+        em.persist(Reserva.builder().fecha(HOY.plusDays(2)).motivo("Otra").asistentes(10).aula(otraAula)
+                .horario(horario).usuario(usuario).build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void elCursorSeCodificaYDecodificaSinPerderNada() {
+        CursorReserva cursor = new CursorReserva(LocalDate.of(2026, 10, 19), 1234567890123L);
+
+        String texto = cursor.codificar();
+
+        assertThat(texto).doesNotContain("=", "+", "/");
+        assertThat(CursorReserva.decodificar(texto)).isEqualTo(cursor);
+        assertThatThrownBy(() -> CursorReserva.decodificar("no-es-un-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación no válido");
+    }
+
+    @Test
+    void recorrerLasPaginasDevuelveCadaReservaUnaVez() throws Exception {
+        List<Long> recorridos = new ArrayList<>();
+        List<Integer> tamanos = new ArrayList<>();
+        String cursor = null;
+        do {
+            var peticion = get("/reservas").param("aulaId", aula.getId().toString()).param("limite", "2");
+            if (cursor != null) peticion.param("cursor", cursor);
+            String json = mvc.perform(peticion).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+            List<Number> pagina = JsonPath.read(json, "$.reservas[*].id");
+            pagina.forEach(id -> recorridos.add(id.longValue()));
+            tamanos.add(pagina.size());
+            cursor = JsonPath.read(json, "$.siguienteCursor");
+        } while (cursor != null);
+
+        assertThat(tamanos).containsExactly(2, 2, 1);
+        assertThat(recorridos).containsExactlyElementsOf(ids);
+    }
+
+    // Con exactamente limite reservas no hay página siguiente; con una más, sí
+    @Test
+    void laUltimaPaginaLlenaNoTieneCursor() throws Exception {
+        mvc.perform(get("/reservas").param("aulaId", aula.getId().toString()).param("limite", "5"))
+                .andExpect(jsonPath("$.reservas.length()").value(5))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+
+        mvc.perform(get("/reservas").param("aulaId", aula.getId().toString()).param("limite", "4"))
+                .andExpect(jsonPath("$.reservas.length()").value(4))
+                .andExpect(jsonPath("$.siguienteCursor").exists());
+    }
+
+    // El cursor marca la última reserva vista, así que desde la mitad de una fecha sigue con el resto de esa fecha
+    @Test
+    void elCursorEnMitadDeUnaFechaSigueConElRestoDeEsaFecha() throws Exception {
+        String cursor = new CursorReserva(HOY.plusDays(3), ids.get(3)).codificar();
+
+        mvc.perform(get("/reservas").param("aulaId", aula.getId().toString()).param("cursor", cursor))
+                .andExpect(jsonPath("$.reservas.length()").value(1))
+                .andExpect(jsonPath("$.reservas[0].id").value(ids.get(4)))
+                .andExpect(jsonPath("$.siguienteCursor").doesNotExist());
+
+        // Los demás filtros se combinan con el orden: desde una fecha, la primera es la de menor id en esa fecha
+        mvc.perform(get("/reservas").param("desde", HOY.plusDays(2).format(FORMATO)).param("limite", "1"))
+                .andExpect(jsonPath("$.reservas[0].id").value(ids.get(2)))
+                .andExpect(jsonPath("$.siguienteCursor").exists());
+    }
+
+    @Test
+    void unCursorNoValidoEsUn400() throws Exception {
+        mvc.perform(get("/reservas").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje").value("Cursor de paginación no válido"));
+    }
+}
@@ -0,0 +1,164 @@
+package es.iesjuanbosco.roberto.ReservasAulas.controllers;
+
+import com.jayway.jsonpath.JsonPath;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.GlobalExceptionHandler;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ArchivoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.DifusionOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.EstadisticasOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.IndiceOcupacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.MetricasReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceAula;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHistorico;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.services.ServiceReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.services.VersionesColecciones;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Lo mismo que RepositorioReservaTest pero de extremo a extremo: servicio, mapper y DTO incluidos. Cada reserva es de
+// un usuario distinto, así que una carga perezosa por fila (aula, horario o usuario) se notaría en el recuento
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ServiceReserva.class, ServiceAula.class, ServiceHorario.class, IndiceOcupacion.class,
+        VersionesColecciones.class, EstadisticasOcupacion.class, MetricasReservas.class, SimpleMeterRegistry.class})
+class SentenciasPorPeticionTest {
+
+    private static final int NUM_RESERVAS = 20;
+
+    @Autowired
+    private ServiceReserva serviceReserva;
+
+    @Autowired
+    private ServiceAula serviceAula;
+
+    @Autowired
+    private VersionesColecciones versiones;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DifusionOcupacion difusion;
+
+    private MockMvc mvc;
+    private Statistics estadisticas;
+    private Long aulaConMuchas;
+    private Long aulaConPocas;
+    private Long reservaId;
+
+    @BeforeEach
+    void crearDatos() {
+        mvc = MockMvcBuilders.standaloneSetup(
+                        new ControllerReserva(serviceReserva, mock(ServiceExportacion.class),
+                                mock(ServiceHistorico.class), mock(ArchivoReservas.class)),
+                        new ControllerAula(serviceAula, versiones))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        Aula aula = em.persist(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        Aula otraAula = em.persist(Aula.builder().nombre("Aula Magna").capacidad(100).esOrdenadores(false).build());
+        Horario primera = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Horario segunda = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(9, 0)).horaFin(LocalTime.of(10, 0)).build());
+
+        // Tres de cada cuatro en la primera aula
+        for (int i = 0; i < NUM_RESERVAS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setEmail("profesor" + i + "@iesjuanbosco.es");
+            usuario.setPassword("x");
+            usuario.setRoles("ROLE_PROFESOR");
+            em.persist(usuario);
+
+            reservaId = em.persist(Reserva.builder().fecha(LocalDate.now().plusDays(i)).motivo("Clase " + i)
+                    .asistentes(10).aula(i % 4 != 0 ? aula : otraAula).horario(i % 3 == 0 ? primera : segunda)
+                    .usuario(usuario).build()).getId();
+        }
+        aulaConMuchas = aula.getId();
+        aulaConPocas = otraAula.getId();
+        em.flush();
+        em.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void elListadoCuestaLoMismoConCualquierTamanoDePagina() throws Exception {
+        long conDos = sentencias(get("/reservas").param("limite", "2"), 2);
+        long conTodas = sentencias(get("/reservas").param("limite", String.valueOf(NUM_RESERVAS)), NUM_RESERVAS);
+
+        assertThat(conDos).isEqualTo(1);
+        assertThat(conTodas).isEqualTo(conDos);
+    }
+
+    @Test
+    void elListadoFiltradoPorAulaUsaUnaSolaSentencia() throws Exception {
+        assertThat(sentencias(get("/reservas").param("aulaId", aulaConMuchas.toString()), 15)).isEqualTo(1);
+    }
+
+    @Test
+    void elDetalleUsaUnaSolaSentencia() throws Exception {
+        estadisticas.clear();
+        mvc.perform(get("/reservas/{id}", reservaId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarioEmail").value("profesor" + (NUM_RESERVAS - 1) + "@iesjuanbosco.es"));
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lasReservasDeUnAulaCuestanLoMismoTengaLasQueTenga() throws Exception {
+        long pocas = sentencias(get("/aulas/{id}/reservas", aulaConPocas), 5);
+        long muchas = sentencias(get("/aulas/{id}/reservas", aulaConMuchas), 15);
+
+        assertThat(pocas).isEqualTo(1);
+        assertThat(muchas).isEqualTo(pocas);
+    }
+
+    // Sentencias preparadas para atender la petición, comprobando que devuelve las reservas esperadas
+    private long sentencias(RequestBuilder peticion, int reservasEsperadas) throws Exception {
+        estadisticas.clear();
+        String json = mvc.perform(peticion).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        long sentencias = estadisticas.getPrepareStatementCount();
+
+        int devueltas = json.startsWith("[")
+                ? JsonPath.read(json, "$.length()")
+                : JsonPath.read(json, "$.reservas.length()");
+        assertThat(devueltas).isEqualTo(reservasEsperadas);
+        return sentencias;
+    }
+}
@@ -0,0 +1,55 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El perfil datos-ejemplo aplica las migraciones V1-V4 y después R__datos_ejemplo.sql; Hibernate valida el esquema
+// resultante, así que si una migración rompe el script de datos este test falla al arrancar
+@DataJpaTest
+@ActiveProfiles({"test", "datos-ejemplo"})
+class DatosEjemploTest {
+
+    @Autowired
+    private RepositorioAula repositorioAula;
+
+    @Autowired
+    private RepositorioHorario repositorioHorario;
+
+    @Autowired
+    private RepositorioReserva repositorioReserva;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void cargaLasAulasYHorariosDeEjemplo() {
+        assertThat(repositorioAula.count()).isEqualTo(5);
+        assertThat(repositorioHorario.count()).isEqualTo(8);
+        assertThat(repositorioReserva.count()).isZero();
+
+        assertThat(repositorioAula.findAll()).extracting(Aula::getNombre)
+                .contains("Aula 101", "Aula Magna", "Laboratorio");
+        assertThat(repositorioHorario.findAll()).extracting(Horario::getDiaSemana)
+                .filteredOn(dia -> dia == DiaSemana.LUNES).hasSize(3);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM aulas WHERE es_ordenadores", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void volverAEjecutarElScriptNoDuplicaNada() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/datos/R__datos_ejemplo.sql"))
+                .execute(jdbc.getDataSource());
+
+        assertThat(repositorioAula.count()).isEqualTo(5);
+        assertThat(repositorioHorario.count()).isEqualTo(8);
+    }
+}
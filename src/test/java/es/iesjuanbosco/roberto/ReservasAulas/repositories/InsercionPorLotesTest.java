@@ -0,0 +1,57 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las altas masivas del catálogo van por lotes JDBC y devuelven cada elemento con su id
+@DataJpaTest
+@ActiveProfiles("test")
+class InsercionPorLotesTest {
+
+    @Autowired
+    private RepositorioAula repositorioAula;
+
+    @Autowired
+    private RepositorioHorario repositorioHorario;
+
+    @Test
+    void lasAulasRecibenSuIdEnOrden() {
+        // Más de un lote de 500
+        List<Aula> aulas = IntStream.range(0, 1200)
+                .mapToObj(i -> Aula.builder().nombre("Aula " + i).capacidad(i % 2 == 0 ? 30 : null)
+                        .esOrdenadores(i % 3 == 0).build())
+                .toList();
+
+        repositorioAula.insertarEnLote(aulas);
+
+        assertThat(aulas).extracting(Aula::getId).doesNotContainNull().isSorted().doesNotHaveDuplicates();
+        Aula ultima = repositorioAula.findById(aulas.get(1199).getId()).orElseThrow();
+        assertThat(ultima.getNombre()).isEqualTo("Aula 1199");
+        assertThat(ultima.getCapacidad()).isNull();
+        assertThat(repositorioAula.count()).isEqualTo(1200);
+    }
+
+    @Test
+    void losHorariosRecibenSuId() {
+        List<Horario> horarios = List.of(
+                Horario.builder().diaSemana(DiaSemana.LUNES).horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build(),
+                Horario.builder().diaSemana(DiaSemana.MIERCOLES).horaInicio(LocalTime.of(9, 0)).horaFin(LocalTime.of(10, 0)).build());
+
+        repositorioHorario.insertarEnLote(horarios);
+
+        Horario miercoles = repositorioHorario.findById(horarios.get(1).getId()).orElseThrow();
+        assertThat(miercoles.getDiaSemana()).isEqualTo(DiaSemana.MIERCOLES);
+        assertThat(miercoles.getHoraFin()).isEqualTo(LocalTime.of(10, 0));
+    }
+}
@@ -0,0 +1,65 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Una base de datos anterior a Flyway (creada con ddl-auto=update) se marca como versión 1 y aun así recibe la
+// restricción única del hueco; sus reservas duplicadas se apartan a reservas_duplicadas, no se borran sin más
+class MigracionHuecoUnicoTest {
+
+    private static final String INSERTAR_RESERVA = "INSERT INTO reservas (id, fecha, motivo, asistentes, aula_id, "
+            + "horario_id, usuario_id) VALUES (?, DATE '2030-01-07', ?, 10, 1, 1, 1)";
+
+    // Las tablas de V1, pero creadas a mano, como las dejaba Hibernate
+    private final EmbeddedDatabase base = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:db/migration/V1__esquema_inicial.sql")
+            .build();
+    private final JdbcTemplate jdbc = new JdbcTemplate(base);
+
+    @AfterEach
+    void cerrar() {
+        base.shutdown();
+    }
+
+    @Test
+    void laBaseDeDatosAnteriorRecibeLaRestriccionYApartaSusDuplicados() throws Exception {
+        assertThat(new ClassPathResource("db/migration/V1__esquema_inicial.sql").getContentAsString(StandardCharsets.UTF_8)).doesNotContain("uk_reserva_aula_fecha_horario");
+        jdbc.update("INSERT INTO aulas (id, nombre) VALUES (1, 'Aula 101')");
+        jdbc.update("INSERT INTO horarios (id, dia_semana) VALUES (1, 'LUNES')");
+        jdbc.update("INSERT INTO usuarios (id, email, password, enabled) VALUES (1, 'profesor@iesjuanbosco.es', 'x', TRUE)");
+        jdbc.update(INSERTAR_RESERVA, 10, "Primera");
+        jdbc.update(INSERTAR_RESERVA, 11, "Duplicada");
+
+        Flyway.configure()
+                .dataSource(base)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(jdbc.queryForList("SELECT motivo FROM reservas", String.class)).containsExactly("Primera");
+        // La duplicada no se pierde: queda apartada con la reserva que se conservó en su hueco
+        assertThat(jdbc.queryForMap("SELECT id, motivo, conservada_id FROM reservas_duplicadas"))
+                .containsEntry("ID", 11L)
+                .containsEntry("MOTIVO", "Duplicada")
+                .containsEntry("CONSERVADA_ID", 10L);
+        assertThatThrownBy(() -> jdbc.update(INSERTAR_RESERVA, 12, "Otra más"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("UK_RESERVA_AULA_FECHA_HORARIO");
+    }
+}
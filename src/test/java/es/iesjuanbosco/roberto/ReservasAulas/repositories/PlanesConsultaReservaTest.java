@@ -0,0 +1,174 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las consultas calientes de reservas usan los índices de las migraciones (db/migration) y no recorren la tabla.
+// Se captura el SQL que genera Hibernate para cada método y se pide su plan a H2 con los mismos parámetros.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "es.iesjuanbosco.roberto.ReservasAulas.repositories.PlanesConsultaReservaTest$Capturador")
+@ActiveProfiles("test")
+class PlanesConsultaReservaTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private RepositorioReserva repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private static final LocalDate hoy = LocalDate.now();
+
+    // ANALYZE confirma la transacción, así que los datos se crean una sola vez para toda la clase
+    private static Long aulaId;
+    private static Long horarioId;
+    private static Long usuarioId;
+
+    @BeforeEach
+    void crearDatos() {
+        Capturador.consultas.clear();
+        if (aulaId != null) return;
+
+        List<Aula> aulas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            aulas.add(em.persist(Aula.builder().nombre("Aula " + i).capacidad(30).esOrdenadores(false).build()));
+        }
+        List<Horario> horarios = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            horarios.add(em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                    .horaInicio(LocalTime.of(8 + i, 0)).horaFin(LocalTime.of(9 + i, 0)).build()));
+        }
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setEmail("profesor" + i + "@iesjuanbosco.es");
+            usuario.setPassword("x");
+            usuario.setRoles("ROLE_PROFESOR");
+            usuarios.add(em.persist(usuario));
+        }
+
+        // Un trimestre de reservas repartidas entre aulas, horarios y usuarios
+        int n = 0;
+        for (int dia = -30; dia < 60; dia++) {
+            for (Aula aula : aulas) {
+                em.persist(Reserva.builder()
+                        .fecha(hoy.plusDays(dia))
+                        .motivo("Clase")
+                        .asistentes(10)
+                        .aula(aula)
+                        .horario(horarios.get(n % horarios.size()))
+                        .usuario(usuarios.get(n % usuarios.size()))
+                        .build());
+                n++;
+            }
+        }
+        aulaId = aulas.get(0).getId();
+        horarioId = horarios.get(0).getId();
+        usuarioId = usuarios.get(0).getId();
+
+        em.flush();
+        em.clear();
+        // Estadísticas de selectividad para el optimizador de H2, como las que tendría MySQL con datos reales
+        em.getEntityManager().createNativeQuery("ANALYZE").executeUpdate();
+        Capturador.consultas.clear();
+    }
+
+    @Test
+    void existsSolapamientoUsaLaRestriccionUnica() throws SQLException {
+        repository.existsSolapamiento(aulaId, horarioId, hoy);
+
+        assertThat(plan(aulaId, horarioId, hoy)).contains("UK_RESERVA_AULA_FECHA_HORARIO");
+    }
+
+    @Test
+    void findByAulaEnRangoUsaLaRestriccionUnica() throws SQLException {
+        repository.findByAulaEnRango(aulaId, hoy, hoy.plusWeeks(4));
+
+        assertThat(plan(aulaId, hoy, hoy.plusWeeks(4))).contains("UK_RESERVA_AULA_FECHA_HORARIO");
+    }
+
+    @Test
+    void laSemanaDeUnAulaUsaLaRestriccionUnica() throws SQLException {
+        repository.findSemanaAula(aulaId, hoy, hoy.plusDays(6));
+
+        assertThat(plan(aulaId, hoy, hoy.plusDays(6))).contains("UK_RESERVA_AULA_FECHA_HORARIO");
+    }
+
+    // MySQL sustituye el índice propio de la clave ajena por idx_reservas_usuario_fecha; H2 conserva los dos y
+    // puede elegir cualquiera, así que se comprueba que la búsqueda es por índice sobre usuario_id
+    @Test
+    void elListadoDeUnUsuarioBuscaPorIndice() throws SQLException {
+        repository.findAll(EspecificacionesReserva.<Reserva>conDetalle().and(EspecificacionesReserva.deUsuario(usuarioId)),
+                Sort.by("fecha", "id"));
+
+        assertThat(plan(usuarioId)).containsPattern("/\\* PUBLIC\\.\\w+: USUARIO_ID = \\?1 \\*/");
+    }
+
+    @Test
+    void elIndiceDeOcupacionSeCargaPorFecha() throws SQLException {
+        repository.findDesdeFechaConHorario(hoy.plusDays(50));
+
+        assertThat(plan(hoy.plusDays(50))).contains("IDX_RESERVAS_FECHA");
+    }
+
+    // Plan de H2 para la última consulta sobre reservas, con sus parámetros en el mismo orden
+    private String plan(Object... parametros) throws SQLException {
+        String sql = Capturador.consultas.stream()
+                .filter(consulta -> consulta.toLowerCase().contains("from reservas"))
+                .reduce((primera, segunda) -> segunda)
+                .orElseThrow();
+
+        Connection conexion = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement explain = conexion.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parametros.length; i++) {
+                explain.setObject(i + 1, parametros[i]);
+            }
+            try (ResultSet resultado = explain.executeQuery()) {
+                resultado.next();
+                String plan = resultado.getString(1).toUpperCase();
+                assertThat(plan).doesNotContain("RESERVAS.TABLESCAN");
+                return plan;
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(conexion, dataSource);
+        }
+    }
+
+    // Guarda el SQL de cada sentencia que prepara Hibernate
+    public static class Capturador implements StatementInspector {
+
+        static final List<String> consultas = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            consultas.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package es.iesjuanbosco.roberto.ReservasAulas.repositories;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaExportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.mapper.ReservaMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Cada listado de reservas debe costar un número fijo de sentencias, sin consultas extra por fila
+@DataJpaTest
+@ActiveProfiles("test")
+class RepositorioReservaTest {
+
+    private static final int NUM_RESERVAS = 20;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private RepositorioReserva repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private Long aulaId;
+    private Long reservaId;
+
+    @BeforeEach
+    void crearDatos() {
+        Aula aula = em.persist(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        Aula otraAula = em.persist(Aula.builder().nombre("Aula Magna").capacidad(100).esOrdenadores(false).build());
+        Horario primera = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Horario segunda = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(9, 0)).horaFin(LocalTime.of(10, 0)).build());
+
+        for (int i = 0; i < NUM_RESERVAS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setEmail("profesor" + i + "@iesjuanbosco.es");
+            usuario.setPassword("x");
+            usuario.setRoles("ROLE_PROFESOR");
+            em.persist(usuario);
+
+            Reserva reserva = Reserva.builder()
+                    .fecha(LocalDate.now().plusDays(i))
+                    .motivo("Clase " + i)
+                    .asistentes(10)
+                    .aula(i % 2 == 0 ? aula : otraAula)
+                    .horario(i % 3 == 0 ? primera : segunda)
+                    .usuario(usuario)
+                    .build();
+            reservaId = em.persist(reserva).getId();
+        }
+        aulaId = aula.getId();
+
+        em.flush();
+        em.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void listadoPaginadoUsaUnaSolaSentencia() {
+        List<Reserva> reservas = repository.findBy(EspecificacionesReserva.conDetalle(), q -> q
+                .sortBy(Sort.by("fecha", "id"))
+                .limit(NUM_RESERVAS)
+                .all());
+        reservas.forEach(ReservaMapper::toDto);
+
+        assertThat(reservas).hasSize(NUM_RESERVAS);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reservasDeAulaUsanUnaSolaSentencia() {
+        List<Reserva> reservas = repository.getReservaByAula_Id(aulaId);
+        reservas.forEach(ReservaMapper::toDto);
+
+        assertThat(reservas).hasSize(NUM_RESERVAS / 2);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void detalleUsaUnaSolaSentencia() {
+        Reserva reserva = repository.findById(reservaId).orElseThrow();
+        ReservaMapper.toDto(reserva);
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportacionLeeFilasPlanasEnUnaSolaSentencia() {
+        List<ReservaExportacion> filas;
+        try (Stream<ReservaExportacion> stream = repository.streamExportacion()) {
+            filas = stream.toList();
+        }
+
+        assertThat(filas).hasSize(NUM_RESERVAS);
+        assertThat(filas).extracting(ReservaExportacion::id).isSorted();
+        assertThat(filas.get(0).usuarioEmail()).isEqualTo("profesor0@iesjuanbosco.es");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void conteoPorAulaHorarioYMesSeAgregaEnLaBaseDeDatos() {
+        List<ConteoReservas> conteos = repository.contarPorAulaHorarioYMes();
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+
+        Map<List<Object>, Long> esperado = repository.findAll().stream().collect(Collectors.groupingBy(
+                r -> List.of(r.getAula().getId(), r.getHorario().getId(), YearMonth.from(r.getFecha())),
+                Collectors.counting()));
+        assertThat(conteos).hasSize(esperado.size());
+        for (ConteoReservas conteo : conteos) {
+            assertThat(conteo.reservas()).isEqualTo(esperado.get(
+                    List.of(conteo.aulaId(), conteo.horarioId(), YearMonth.of(conteo.anio(), conteo.mes()))));
+        }
+    }
+
+    @Test
+    void semanaDeAulaLeeSoloEsosDiasEnUnaSolaSentencia() {
+        LocalDate hoy = LocalDate.now();
+        List<ReservaSemana> semana = repository.findSemanaAula(aulaId, hoy, hoy.plusDays(6));
+
+        // El aula tiene las reservas de los días pares: 0, 2, 4 y 6 caen en la semana
+        assertThat(semana).extracting(ReservaSemana::fecha)
+                .containsExactlyInAnyOrder(hoy, hoy.plusDays(2), hoy.plusDays(4), hoy.plusDays(6));
+        assertThat(semana).extracting(ReservaSemana::usuarioEmail).contains("profesor0@iesjuanbosco.es");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void noSePuedenGuardarDosReservasEnElMismoHueco() {
+        Reserva existente = repository.findById(reservaId).orElseThrow();
+        Reserva duplicada = Reserva.builder()
+                .fecha(existente.getFecha())
+                .motivo("Duplicada")
+                .asistentes(5)
+                .aula(existente.getAula())
+                .horario(existente.getHorario())
+                .usuario(existente.getUsuario())
+                .build();
+
+        assertThatThrownBy(() -> repository.saveAndFlush(duplicada))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Reserva.RESTRICCION_HUECO.toUpperCase());
+    }
+}
@@ -0,0 +1,185 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.CursorReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.ReservaHistorica;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReservaHistorica;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Las reservas pasadas salen de la tabla reservas por lotes y siguen consultándose en el histórico
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ServiceHistorico.class, VersionesColecciones.class})
+class ArchivoReservasTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ServiceHistorico serviceHistorico;
+
+    @Autowired
+    private RepositorioReserva repository;
+
+    @Autowired
+    private RepositorioReservaHistorica historico;
+
+    private Aula aula;
+    private Aula otraAula;
+
+    // Reservas pasadas en orden de fecha
+    private final List<Reserva> pasadas = new ArrayList<>();
+
+    @BeforeEach
+    void crearDatos() {
+        aula = em.persist(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        otraAula = em.persist(Aula.builder().nombre("Aula Magna").capacidad(100).esOrdenadores(false).build());
+        Horario horario = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Usuario usuario = new Usuario();
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setPassword("x");
+        usuario.setRoles("ROLE_PROFESOR");
+        em.persist(usuario);
+
+        // Cinco pasadas en un aula, dos en la otra y dos futuras
+        for (int i = 0; i < 7; i++) {
+            pasadas.add(em.persist(Reserva.builder().fecha(HOY.minusDays(30 - i)).motivo("Clase " + i).asistentes(10)
+                    .aula(i < 5 ? aula : otraAula).horario(horario).usuario(usuario).build()));
+        }
+        for (int i = 1; i <= 2; i++) {
+            em.persist(Reserva.builder().fecha(HOY.plusDays(i)).motivo("Futura " + i).asistentes(10)
+                    .aula(aula).horario(horario).usuario(usuario).build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void archivaPorLotesLasMasAntiguasConservandoElId() {
+        assertThat(serviceHistorico.archivarLote(HOY, 3)).isEqualTo(3);
+        em.clear();
+        assertThat(historico.findAll()).extracting(ReservaHistorica::getId)
+                .containsExactlyInAnyOrderElementsOf(pasadas.subList(0, 3).stream().map(Reserva::getId).toList());
+        assertThat(repository.count()).isEqualTo(6);
+
+        ReservaHistorica primera = historico.findById(pasadas.get(0).getId()).orElseThrow();
+        assertThat(primera.getFecha()).isEqualTo(HOY.minusDays(30));
+        assertThat(primera.getMotivo()).isEqualTo("Clase 0");
+        assertThat(primera.getAula().getId()).isEqualTo(aula.getId());
+
+        assertThat(serviceHistorico.archivarLote(HOY, 3)).isEqualTo(3);
+        assertThat(serviceHistorico.archivarLote(HOY, 3)).isEqualTo(1);
+        assertThat(serviceHistorico.archivarLote(HOY, 3)).isZero();
+        em.clear();
+        assertThat(repository.findAll()).extracting(Reserva::getMotivo).containsExactlyInAnyOrder("Futura 1", "Futura 2");
+        assertThat(historico.count()).isEqualTo(7);
+    }
+
+    // Un lote de 0 (o negativo) en la configuración se trata como 1: no puede quedarse en bucle sin archivar nada
+    @Test
+    void unLoteNoPositivoArchivaDeUnaEnUna() {
+        ArchivoReservas archivo = new ArchivoReservas(serviceHistorico, 0, 0);
+
+        assertThat(archivo.archivar()).hasValue(7);
+        assertThat(new ArchivoReservas(serviceHistorico, 0, -5).archivar()).hasValue(0);
+        em.clear();
+        assertThat(historico.count()).isEqualTo(7);
+    }
+
+    // Una segunda ejecución mientras la primera sigue archivando no espera a que termine: se omite
+    @Test
+    void unArchivadoEnCursoNoDejaEmpezarOtro() throws Exception {
+        ServiceHistorico lento = mock(ServiceHistorico.class);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        when(lento.archivarLote(any(), anyInt())).thenAnswer(invocacion -> {
+            dentro.countDown();
+            terminar.await();
+            return 0;
+        });
+        ArchivoReservas archivo = new ArchivoReservas(lento, 0, 10);
+
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<OptionalInt> primero = hilo.submit(archivo::archivar);
+            assertThat(dentro.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(archivo.archivar()).isEmpty();
+
+            terminar.countDown();
+            assertThat(primero.get(10, TimeUnit.SECONDS)).hasValue(0);
+            assertThat(archivo.archivar()).hasValue(0);
+        } finally {
+            hilo.shutdownNow();
+        }
+    }
+
+    @Test
+    void elHistoricoSeListaConLosFiltrosYElCursor() {
+        serviceHistorico.archivarLote(HOY, 100);
+        em.clear();
+
+        List<Reserva> pagina = serviceHistorico.obtenerPagina(aula.getId(), null, null, null, null, null, 2);
+        assertThat(pagina).extracting(Reserva::getMotivo).containsExactly("Clase 0", "Clase 1", "Clase 2");
+        assertThat(pagina.get(0).getAula().getNombre()).isEqualTo("Aula 101");
+
+        Reserva ultima = pagina.get(1);
+        pagina = serviceHistorico.obtenerPagina(aula.getId(), null, null, null, null,
+                new CursorReserva(ultima.getFecha(), ultima.getId()), 2);
+        assertThat(pagina).extracting(Reserva::getMotivo).containsExactly("Clase 2", "Clase 3", "Clase 4");
+
+        // Las estadísticas siguen contándolas al reconstruirse
+        assertThat(historico.contarPorAulaHorarioYMes().stream().mapToLong(ConteoReservas::reservas).sum()).isEqualTo(7);
+    }
+
+    @Test
+    void alBorrarUnAulaSeBorranSusReservasArchivadas() {
+        serviceHistorico.archivarLote(HOY, 100);
+        em.clear();
+
+        em.remove(em.find(Aula.class, otraAula.getId()));
+        em.flush();
+        em.clear();
+        assertThat(historico.findAll()).allMatch(reserva -> reserva.getAula().getId().equals(aula.getId()))
+                .hasSize(5);
+    }
+
+    @Test
+    void noSeArchivanReservasFuturas() {
+        assertThatThrownBy(() -> serviceHistorico.archivarLote(HOY.plusDays(1), 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,137 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.iesjuanbosco.roberto.ReservasAulas.config.JacksonConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.controllers.ControllerDisponibilidad;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Cada cliente recibe la foto de la fecha y después los cambios, agrupados en un evento por intervalo
+class DifusionOcupacionTest {
+
+    private static final LocalDate FECHA = LocalDate.now().plusDays(7);
+
+    private final IndiceOcupacion indiceOcupacion = mock(IndiceOcupacion.class);
+    private final ServiceHorario serviceHorario = mock(ServiceHorario.class);
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    // Aulas ocupadas que devuelve el índice
+    private BitSet ocupadas = new BitSet();
+
+    private DifusionOcupacion difusion;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void preparar() {
+        // El intervalo no llega a cumplirse: cada test publica cuando le conviene
+        difusion = new DifusionOcupacion(indiceOcupacion, serviceHorario, objectMapper, 3_600_000, 1);
+        mvc = MockMvcBuilders.standaloneSetup(
+                new ControllerDisponibilidad(mock(ServiceDisponibilidad.class), difusion)).build();
+
+        when(serviceHorario.obtenerTodas()).thenReturn(List.of(Horario.builder().id(1L).diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build()));
+        when(indiceOcupacion.aulasOcupadas(eq(FECHA), any())).thenAnswer(invocacion -> ocupadas.clone());
+        ocupadas(1);
+    }
+
+    @AfterEach
+    void cerrar() {
+        difusion.cerrar();
+    }
+
+    @Test
+    void fotoInicialYCambiosAgrupados() throws Exception {
+        MockHttpServletResponse respuesta = suscribir();
+        difusion.publicar();
+        assertThat(eventos(respuesta, "estado")).isEqualTo(1);
+        assertThat(respuesta.getContentAsString()).contains("{\"aulaId\":1,\"horarioId\":1,\"ocupada\":true}");
+
+        // Tres marcas en el mismo intervalo (dos del mismo hueco) salen en un único evento
+        ocupadas(1, 2, 3);
+        difusion.huecoCambiado(FECHA, 2L, 1L);
+        difusion.huecoCambiado(FECHA, 2L, 1L);
+        difusion.huecoCambiado(FECHA, 3L, 1L);
+        difusion.publicar();
+        assertThat(eventos(respuesta, "cambios")).isEqualTo(1);
+
+        String cambios = respuesta.getContentAsString().substring(respuesta.getContentAsString().indexOf("event:cambios"));
+        assertThat(Pattern.compile("\"aulaId\":2").matcher(cambios).results().count()).isEqualTo(1);
+        assertThat(cambios).contains("{\"aulaId\":3,\"horarioId\":1,\"ocupada\":true}");
+
+        ocupadas(1, 3);
+        difusion.huecoCambiado(FECHA, 2L, 1L);
+        difusion.publicar();
+        assertThat(eventos(respuesta, "cambios")).isEqualTo(2);
+        assertThat(respuesta.getContentAsString()).contains("{\"aulaId\":2,\"horarioId\":1,\"ocupada\":false}");
+    }
+
+    @Test
+    void enUnaTransaccionElCambioSePublicaAlTerminar() throws Exception {
+        MockHttpServletResponse respuesta = suscribir();
+        difusion.publicar();
+
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> sincronizaciones;
+        try {
+            difusion.huecoCambiado(FECHA, 2L, 1L);
+            sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        difusion.publicar();
+        assertThat(eventos(respuesta, "cambios")).isZero();
+
+        // También al deshacerse: el hueco ocupado de forma provisional vuelve a estar libre
+        sincronizaciones.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        difusion.publicar();
+        assertThat(eventos(respuesta, "cambios")).isEqualTo(1);
+        assertThat(respuesta.getContentAsString()).contains("{\"aulaId\":2,\"horarioId\":1,\"ocupada\":false}");
+    }
+
+    @Test
+    void noSePuedenSeguirFechasPasadas() {
+        assertThatThrownBy(() -> difusion.suscribir(LocalDate.now().minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private MockHttpServletResponse suscribir() throws Exception {
+        return mvc.perform(get("/disponibilidad/eventos")
+                        .param("fecha", FECHA.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private void ocupadas(int... aulas) {
+        BitSet nuevas = new BitSet();
+        for (int aula : aulas) nuevas.set(aula);
+        ocupadas = nuevas;
+    }
+
+    private static long eventos(MockHttpServletResponse respuesta, String nombre) throws Exception {
+        return Pattern.compile("event:" + nombre + "\n").matcher(respuesta.getContentAsString()).results().count();
+    }
+}
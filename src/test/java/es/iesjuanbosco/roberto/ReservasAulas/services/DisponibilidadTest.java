@@ -0,0 +1,102 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Aulas libres a partir del índice de ocupación y del catálogo de la caché
+class DisponibilidadTest {
+
+    private static final LocalDate FECHA = LocalDate.now().plusDays(7);
+
+    private final ServiceAula serviceAula = mock(ServiceAula.class);
+    private final ServiceHorario serviceHorario = mock(ServiceHorario.class);
+    private final IndiceOcupacion indice = new IndiceOcupacion(null);
+    private final ServiceDisponibilidad serviceDisponibilidad =
+            new ServiceDisponibilidad(serviceAula, serviceHorario, indice);
+
+    private final Horario ocho = horario(1L, 8, 0, 9, 0);
+    private final Horario ochoYMedia = horario(2L, 8, 30, 9, 30);
+    private final Horario diez = horario(3L, 10, 0, 11, 0);
+
+    private final Aula pequena = aula(1L, 20, false);
+    private final Aula informatica = aula(2L, 30, true);
+    private final Aula magna = aula(3L, 100, false);
+
+    @BeforeEach
+    void preparar() {
+        when(serviceHorario.obtenerTodas()).thenReturn(List.of(ocho, ochoYMedia, diez));
+        when(serviceAula.obtenerTodas()).thenReturn(List.of(magna, pequena, informatica));
+    }
+
+    @Test
+    void unAulaOcupadaEnUnHorarioSolapadoNoEstaLibre() {
+        ocupar(magna, ochoYMedia);
+
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, ocho.getId(), null, null))
+                .containsExactly(pequena, informatica);
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, diez.getId(), null, null))
+                .containsExactly(pequena, informatica, magna);
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA.plusDays(1), ocho.getId(), null, null))
+                .hasSize(3);
+    }
+
+    @Test
+    void filtraPorCapacidadYOrdenadores() {
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, ocho.getId(), 25, null))
+                .containsExactly(informatica, magna);
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, ocho.getId(), null, true))
+                .containsExactly(informatica);
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, ocho.getId(), 50, false))
+                .containsExactly(magna);
+    }
+
+    @Test
+    void lasAulasNuevasDelCatalogoAparecenSinInvalidarNada() {
+        Aula nueva = aula(4L, 15, false);
+        when(serviceAula.obtenerTodas()).thenReturn(List.of(magna, pequena, informatica, nueva));
+
+        assertThat(serviceDisponibilidad.buscarAulasLibres(FECHA, ocho.getId(), null, null)).contains(nueva);
+    }
+
+    @Test
+    void unHorarioDesconocidoEsUnError() {
+        assertThatThrownBy(() -> serviceDisponibilidad.buscarAulasLibres(FECHA, 99L, null, null))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void unaFechaPasadaEsUnError() {
+        assertThatThrownBy(() -> serviceDisponibilidad.buscarAulasLibres(LocalDate.now().minusDays(1), 1L, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hoy en adelante");
+    }
+
+    private void ocupar(Aula aula, Horario horario) {
+        Reserva reserva = Reserva.builder().id(aula.getId() * 100).aula(aula).horario(horario).fecha(FECHA).build();
+        indice.confirmar(indice.ocupar(aula.getId(), FECHA, horario, null), reserva);
+    }
+
+    private static Horario horario(Long id, int h1, int m1, int h2, int m2) {
+        return Horario.builder().id(id).diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(h1, m1)).horaFin(LocalTime.of(h2, m2)).build();
+    }
+
+    private static Aula aula(Long id, int capacidad, boolean ordenadores) {
+        return Aula.builder().id(id).nombre("Aula " + id).capacidad(capacidad).esOrdenadores(ordenadores).build();
+    }
+}
@@ -0,0 +1,178 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ConteoReservas;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.EstadisticasOcupacionDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionAulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionFranjaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionMesDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.OcupacionTotalMesDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReservaHistorica;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Los contadores parten de la consulta agregada y después se mantienen con cada alta y baja confirmada
+class EstadisticasOcupacionTest {
+
+    private final RepositorioReserva repository = mock(RepositorioReserva.class);
+    private final EstadisticasOcupacion estadisticas = new EstadisticasOcupacion(repository,
+            mock(RepositorioReservaHistorica.class));
+
+    private final Aula aula = Aula.builder().id(1L).nombre("Aula 101").capacidad(30).esOrdenadores(false).build();
+    private final Aula otraAula = Aula.builder().id(2L).nombre("Aula Magna").capacidad(100).esOrdenadores(false).build();
+    private final Horario lunes = Horario.builder().id(1L).diaSemana(DiaSemana.LUNES)
+            .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build();
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void seReconstruyeYSeMantieneConCadaCambio() {
+        when(repository.contarPorAulaHorarioYMes()).thenReturn(List.of(
+                new ConteoReservas(1L, 1L, 2026, 3, 4L),
+                new ConteoReservas(1L, 1L, 2026, 4, 1L)));
+        estadisticas.reconstruir();
+
+        estadisticas.sumar(reserva(LocalDate.of(2026, 3, 30)));
+        estadisticas.restar(reserva(LocalDate.of(2026, 4, 6)));
+
+        EstadisticasOcupacionDTO resumen = estadisticas.resumen(List.of(aula), List.of(lunes), null);
+        assertThat(resumen.getPorFranja()).singleElement()
+                .extracting(OcupacionFranjaDTO::getDiaSemana, OcupacionFranjaDTO::getReservas)
+                .containsExactly("LUNES", 5L);
+        // Marzo de 2026 tiene 5 lunes: las 5 reservas llenan todos los huecos; abril se queda sin reservas
+        assertThat(resumen.getPorMes()).singleElement()
+                .extracting(OcupacionMesDTO::getMes, OcupacionMesDTO::getReservas, OcupacionMesDTO::getHuecos,
+                        OcupacionMesDTO::getPorcentaje)
+                .containsExactly("2026-03", 5L, 5L, 100.0);
+        assertThat(resumen.getTotalPorAula()).singleElement()
+                .extracting(OcupacionAulaDTO::getAulaNombre, OcupacionAulaDTO::getReservas)
+                .containsExactly("Aula 101", 5L);
+        assertThat(resumen.getTotalPorMes()).singleElement()
+                .extracting(OcupacionTotalMesDTO::getMes, OcupacionTotalMesDTO::getReservas)
+                .containsExactly("2026-03", 5L);
+    }
+
+    // Los totales por mes suman todas las aulas y sus huecos son los de todas ellas; filtrando por un aula, solo
+    // cuentan las suyas
+    @Test
+    void losTotalesSumanLasAulasConsultadas() {
+        when(repository.contarPorAulaHorarioYMes()).thenReturn(List.of(
+                new ConteoReservas(1L, 1L, 2026, 3, 4L),
+                new ConteoReservas(2L, 1L, 2026, 3, 1L)));
+        estadisticas.reconstruir();
+
+        EstadisticasOcupacionDTO resumen = estadisticas.resumen(List.of(aula, otraAula), List.of(lunes), null);
+        assertThat(resumen.getTotalPorAula()).extracting(OcupacionAulaDTO::getAulaId, OcupacionAulaDTO::getReservas)
+                .containsExactly(tuple(1L, 4L), tuple(2L, 1L));
+        assertThat(resumen.getTotalPorMes()).singleElement()
+                .extracting(OcupacionTotalMesDTO::getReservas, OcupacionTotalMesDTO::getHuecos,
+                        OcupacionTotalMesDTO::getPorcentaje)
+                .containsExactly(5L, 10L, 50.0);
+
+        EstadisticasOcupacionDTO deUnAula = estadisticas.resumen(List.of(aula, otraAula), List.of(lunes), 2L);
+        assertThat(deUnAula.getPorMes()).extracting(OcupacionMesDTO::getAulaId).containsExactly(2L);
+        assertThat(deUnAula.getTotalPorAula()).extracting(OcupacionAulaDTO::getAulaId).containsExactly(2L);
+        assertThat(deUnAula.getTotalPorMes()).singleElement()
+                .extracting(OcupacionTotalMesDTO::getReservas, OcupacionTotalMesDTO::getHuecos)
+                .containsExactly(1L, 5L);
+    }
+
+    // Quitar un aula solo se aplica si el borrado se confirma: deshecho, sus contadores siguen ahí
+    @Test
+    void quitarUnAulaEsperaAQueSeConfirme() {
+        when(repository.contarPorAulaHorarioYMes()).thenReturn(List.of(
+                new ConteoReservas(1L, 1L, 2026, 3, 4L),
+                new ConteoReservas(2L, 1L, 2026, 3, 1L)));
+        estadisticas.reconstruir();
+
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.quitarAula(1L);
+        List<TransactionSynchronization> deshecha = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        deshecha.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(estadisticas.resumen(List.of(aula, otraAula), List.of(lunes), null).getTotalPorMes())
+                .extracting(OcupacionTotalMesDTO::getReservas).containsExactly(5L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.quitarAula(1L);
+        List<TransactionSynchronization> confirmada = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        confirmada.forEach(TransactionSynchronization::afterCommit);
+
+        EstadisticasOcupacionDTO resumen = estadisticas.resumen(List.of(aula, otraAula), List.of(lunes), null);
+        assertThat(resumen.getTotalPorAula()).extracting(OcupacionAulaDTO::getAulaId).containsExactly(2L);
+        assertThat(resumen.getTotalPorMes()).extracting(OcupacionTotalMesDTO::getReservas).containsExactly(1L);
+    }
+
+    @Test
+    void enUnaTransaccionSoloCuentaSiSeConfirma() {
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.sumar(reserva(LocalDate.of(2026, 3, 2)));
+        assertThat(estadisticas.resumen(List.of(aula), List.of(lunes), null).getPorMes()).isEmpty();
+
+        List<TransactionSynchronization> confirmada = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        confirmada.forEach(s -> s.beforeCommit(false));
+        confirmada.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.sumar(reserva(LocalDate.of(2026, 3, 9)));
+        List<TransactionSynchronization> deshecha = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        deshecha.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(estadisticas.resumen(List.of(aula), List.of(lunes), null).getPorMes())
+                .extracting(OcupacionMesDTO::getReservas).containsExactly(1L);
+    }
+
+    // Una reserva confirmada mientras se reconstruye no puede contarse dos veces: la reconstrucción espera a
+    // que termine el commit en curso
+    @Test
+    void laReconstruccionEsperaALosCommitsEnCurso() throws Exception {
+        when(repository.contarPorAulaHorarioYMes()).thenReturn(List.of(new ConteoReservas(1L, 1L, 2026, 3, 1L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        estadisticas.sumar(reserva(LocalDate.of(2026, 3, 2)));
+        List<TransactionSynchronization> enCommit = TransactionSynchronizationManager.getSynchronizations();
+        enCommit.forEach(s -> s.beforeCommit(false));
+
+        CompletableFuture<Void> reconstruccion = CompletableFuture.runAsync(estadisticas::reconstruir);
+        assertThatThrownBy(() -> reconstruccion.get(300, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+
+        enCommit.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        reconstruccion.get(5, TimeUnit.SECONDS);
+
+        assertThat(estadisticas.resumen(List.of(aula), List.of(lunes), null).getPorMes())
+                .extracting(OcupacionMesDTO::getReservas).containsExactly(1L);
+    }
+
+    private Reserva reserva(LocalDate fecha) {
+        return Reserva.builder().fecha(fecha).aula(aula).horario(lunes).build();
+    }
+}
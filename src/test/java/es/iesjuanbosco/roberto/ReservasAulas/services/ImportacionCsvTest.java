@@ -0,0 +1,148 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ErrorImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoImportacion;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// El CSV se procesa por bloques; las filas inválidas se anotan con su línea sin detener la importación
+class ImportacionCsvTest {
+
+    private final ServiceAula serviceAula = mock(ServiceAula.class);
+    private final ServiceHorario serviceHorario = mock(ServiceHorario.class);
+    private final ServiceReserva serviceReserva = mock(ServiceReserva.class);
+    private final RepositorioUsuario repositorioUsuario = mock(RepositorioUsuario.class);
+    private final ServiceImportacion serviceImportacion = new ServiceImportacion(serviceAula, serviceHorario,
+            serviceReserva, repositorioUsuario, Validation.buildDefaultValidatorFactory().getValidator());
+
+    // Tamaño de cada bloque que llega a ServiceReserva
+    private final List<Integer> bloques = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        when(serviceAula.obtenerTodas()).thenReturn(List.of(
+                Aula.builder().id(1L).nombre("Aula 101").capacidad(30).esOrdenadores(false).build()));
+        when(serviceHorario.obtenerTodas()).thenReturn(List.of(Horario.builder().id(1L).diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build()));
+
+        Usuario profesor = new Usuario();
+        profesor.setId(7L);
+        profesor.setEmail("profesor@iesjuanbosco.es");
+        when(repositorioUsuario.findAll()).thenReturn(List.of(profesor));
+
+        // El índice rechaza las reservas con motivo "Ocupada" como si su hueco ya estuviera cogido
+        doAnswer(invocacion -> {
+            Reserva[] reservas = invocacion.getArgument(0);
+            String[] errores = invocacion.getArgument(1);
+            bloques.add(reservas.length);
+            for (int i = 0; i < reservas.length; i++) {
+                if (reservas[i].getMotivo().equals("Ocupada")) {
+                    errores[i] = "La reserva se solapa con otra reserva existente en el mismo aula y horario.";
+                }
+            }
+            return null;
+        }).when(serviceReserva).importarLote(any(), any());
+    }
+
+    @Test
+    void elLectorAdmiteComillasSaltosDeLineaYBom() throws Exception {
+        LectorCsv lector = new LectorCsv(csv("﻿a,b\r\n\"x, \"\"y\"\"\",\"dos\nlíneas\"\n\n3,\n"));
+
+        assertThat(lector.siguiente()).containsExactly("a", "b");
+        assertThat(lector.siguiente()).containsExactly("x, \"y\"", "dos\nlíneas");
+        assertThat(lector.linea()).isEqualTo(2);
+        assertThat(lector.siguiente()).containsExactly("3", "");
+        assertThat(lector.linea()).isEqualTo(5);
+        assertThat(lector.siguiente()).isNull();
+    }
+
+    @Test
+    void lasReservasSeGuardanPorBloquesYLasFilasInvalidasSeAnotan() throws Exception {
+        LocalDate lunes = LocalDate.now().plusWeeks(1).with(java.time.DayOfWeek.MONDAY);
+        StringBuilder fichero = new StringBuilder("fecha,motivo,asistentes,aulaNombre,horarioDiaSemana,"
+                + "horarioHoraInicio,usuarioEmail\n");
+        for (int i = 0; i < 2500; i++) {
+            fichero.append(lunes.plusWeeks(i)).append(",Clase ").append(i)
+                    .append(",20,Aula 101,Lunes,08:00,profesor@iesjuanbosco.es\n");
+        }
+        // Líneas 2502 a 2505
+        fichero.append(lunes).append(",Clase,20,Aula 999,LUNES,08:00,profesor@iesjuanbosco.es\n");
+        fichero.append(lunes).append(",Clase,20,Aula 101,LUNES,08:00,nadie@iesjuanbosco.es\n");
+        fichero.append("30/02/2030,Clase,20,Aula 101,LUNES,08:00,profesor@iesjuanbosco.es\n");
+        fichero.append(lunes).append(",Ocupada,20,Aula 101,LUNES,08:00,profesor@iesjuanbosco.es\n");
+
+        ResultadoImportacion resultado = serviceImportacion.importarReservas(csv(fichero.toString()));
+
+        assertThat(bloques).containsExactly(1000, 1000, 501);
+        assertThat(resultado.getFilas()).isEqualTo(2504);
+        assertThat(resultado.getImportadas()).isEqualTo(2500);
+        assertThat(resultado.getRechazadas()).isEqualTo(4);
+        assertThat(resultado.getErrores()).extracting(ErrorImportacion::linea)
+                .containsExactly(2502L, 2503L, 2504L, 2505L);
+        assertThat(resultado.getErrores().get(0).mensaje()).isEqualTo("Aula no encontrada: aula 999");
+        assertThat(resultado.getErrores().get(3).mensaje()).contains("se solapa");
+    }
+
+    @Test
+    void delCsvExportadoSoloEntranLasReservasDeHoyEnAdelante() throws Exception {
+        LocalDate futura = LocalDate.now().plusDays(7);
+        String exportado = "id,fecha,motivo,asistentes,fechaCreacion,aulaId,aulaNombre,horarioId,horarioDiaSemana,"
+                + "horarioHoraInicio,horarioHoraFin,usuarioId,usuarioEmail\n"
+                + "3,2020-01-13,Archivada,20,2020-01-01,1,Aula 101,1,LUNES,08:00,09:00,7,profesor@iesjuanbosco.es\n"
+                + "9," + futura + ",Vigente,20,2026-01-01,1,Aula 101,1,LUNES,08:00,09:00,7,profesor@iesjuanbosco.es\n";
+
+        ResultadoImportacion resultado = serviceImportacion.importarReservas(csv(exportado));
+
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+        assertThat(resultado.getErrores()).containsExactly(
+                new ErrorImportacion(2, "No se pueden hacer reservas en el pasado"));
+    }
+
+    @Test
+    void lasAulasRepetidasSeRechazan() throws Exception {
+        ResultadoImportacion resultado = serviceImportacion.importarAulas(csv(
+                "nombre,capacidad,esOrdenadores\nAula 201,25,sí\naula 101,30,no\nAula 201,25,no\nLab,-1,no\n"));
+
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+        assertThat(resultado.getErrores()).extracting(ErrorImportacion::linea).containsExactly(3L, 4L, 5L);
+        verify(serviceAula).guardarTodas(anyList());
+    }
+
+    @Test
+    void sinLasColumnasObligatoriasNoSeImportaNada() {
+        assertThatThrownBy(() -> serviceImportacion.importarReservas(csv("fecha,motivo,asistentes,aulaId\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("horarioId o horarioDiaSemana")
+                .hasMessageContaining("usuarioId o usuarioEmail");
+        verify(serviceReserva, never()).importarLote(any(), any());
+    }
+
+    private static InputStream csv(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndiceOcupacionTest {
+
+    private static final Long AULA = 1L;
+    private static final LocalDate FECHA = LocalDate.now().plusDays(7);
+
+    private final IndiceOcupacion indice = new IndiceOcupacion(null);
+
+    private final Horario primeraHora = Horario.builder().id(1L).diaSemana(DiaSemana.LUNES)
+            .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build();
+    private final Horario primeraHoraYMedia = Horario.builder().id(2L).diaSemana(DiaSemana.LUNES)
+            .horaInicio(LocalTime.of(8, 30)).horaFin(LocalTime.of(9, 30)).build();
+
+    @AfterEach
+    void limpiarTransaccion() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Muchas peticiones a la vez sobre el mismo hueco: solo una puede ocuparlo
+    @Test
+    void soloUnaPeticionConcurrenteOcupaElHueco() throws Exception {
+        int hilos = 64;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger ganadores = new AtomicInteger();
+        AtomicInteger rechazados = new AtomicInteger();
+
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                Horario horario = i % 2 == 0 ? primeraHora : primeraHoraYMedia;
+                tareas.add(ejecutor.submit(() -> {
+                    salida.await();
+                    try {
+                        indice.ocupar(AULA, FECHA, horario, null);
+                        ganadores.incrementAndGet();
+                    } catch (ConflictoReservaException e) {
+                        rechazados.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        assertThat(ganadores.get()).isEqualTo(1);
+        assertThat(rechazados.get()).isEqualTo(hilos - 1);
+    }
+
+    @Test
+    void elHuecoSeLiberaSiLaTransaccionSeDeshace() {
+        TransactionSynchronizationManager.initSynchronization();
+        indice.ocupar(AULA, FECHA, primeraHora, null);
+        terminarTransaccion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(indice.aulasOcupadas(FECHA, List.of(primeraHora.getId())).isEmpty()).isTrue();
+        indice.ocupar(AULA, FECHA, primeraHora, null);
+    }
+
+    @Test
+    void elHuecoConfirmadoQuedaOcupado() {
+        TransactionSynchronizationManager.initSynchronization();
+        IndiceOcupacion.Ocupacion hueco = indice.ocupar(AULA, FECHA, primeraHora, null);
+        indice.confirmar(hueco, Reserva.builder().id(10L).build());
+        terminarTransaccion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(indice.aulasOcupadas(FECHA, List.of(primeraHora.getId())).get(AULA.intValue())).isTrue();
+        assertThatThrownBy(() -> indice.ocupar(AULA, FECHA, primeraHoraYMedia, null))
+                .isInstanceOf(ConflictoReservaException.class);
+
+        // La propia reserva puede moverse a un horario que se solapa con el suyo
+        indice.ocupar(AULA, FECHA, primeraHoraYMedia, 10L);
+    }
+
+    // Los días que ya han pasado salen del índice; los de hoy en adelante se mantienen
+    @Test
+    void descartaLosDiasPasados() {
+        LocalDate ayer = FECHA.minusDays(1);
+        indice.confirmar(indice.ocupar(AULA, ayer, primeraHora, null), Reserva.builder().id(10L).build());
+        indice.confirmar(indice.ocupar(AULA, FECHA, primeraHora, null), Reserva.builder().id(11L).build());
+
+        indice.descartarAnteriores(FECHA);
+
+        assertThat(indice.aulasOcupadas(ayer, List.of(primeraHora.getId())).isEmpty()).isTrue();
+        assertThat(indice.aulasOcupadas(FECHA, List.of(primeraHora.getId())).get(AULA.intValue())).isTrue();
+        // Lo descartado ya no ocupa nada: se puede volver a indexar el mismo hueco
+        indice.ocupar(AULA, ayer, primeraHora, null);
+    }
+
+    private static void terminarTransaccion(int estado) {
+        List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(sincronizaciones, estado);
+    }
+}
@@ -0,0 +1,82 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.config.SecurityConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// El usuario de cada petición se obtiene de los claims del token, sin consultar la base de datos
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService();
+    private final RepositorioUsuario repositorioUsuario = mock(RepositorioUsuario.class);
+    private final SecurityConfig securityConfig = new SecurityConfig(jwtService, repositorioUsuario);
+
+    @Test
+    void elTokenLlevaElIdYLosRolesDelUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setId(42L);
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setRoles("ROLE_PROFESOR,ROLE_ADMIN");
+
+        Jwt jwt = securityConfig.jwtDecoder().decode(jwtService.generateToken(
+                UsernamePasswordAuthenticationToken.authenticated(usuario, null, usuario.getAuthorities())));
+        AbstractAuthenticationToken autenticacion = securityConfig.jwtAuthenticationConverter().convert(jwt);
+
+        assertThat(autenticacion.getPrincipal()).isEqualTo(
+                new UsuarioAutenticado(42L, "profesor@iesjuanbosco.es", "ROLE_PROFESOR,ROLE_ADMIN"));
+        assertThat(autenticacion.getName()).isEqualTo("profesor@iesjuanbosco.es");
+        assertThat(autenticacion.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_PROFESOR", "ROLE_ADMIN");
+        assertThat(((UsuarioAutenticado) autenticacion.getPrincipal()).esAdmin()).isTrue();
+    }
+
+    // Los tokens emitidos antes de llevar el id siguen valiendo: el id se busca por el email del token
+    @Test
+    void unTokenSinIdBuscaAlUsuarioPorEmail() {
+        Usuario usuario = new Usuario();
+        usuario.setId(42L);
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setRoles("ROLE_PROFESOR");
+        when(repositorioUsuario.findByEmail("profesor@iesjuanbosco.es")).thenReturn(Optional.of(usuario));
+
+        AbstractAuthenticationToken autenticacion = securityConfig.jwtAuthenticationConverter()
+                .convert(tokenSinId("profesor@iesjuanbosco.es", usuario));
+
+        assertThat(autenticacion.getPrincipal()).isEqualTo(
+                new UsuarioAutenticado(42L, "profesor@iesjuanbosco.es", "ROLE_PROFESOR"));
+    }
+
+    @Test
+    void unTokenSinIdDeUnUsuarioQueYaNoExisteSeRechaza() {
+        Usuario usuario = new Usuario();
+        usuario.setRoles("ROLE_PROFESOR");
+        when(repositorioUsuario.findByEmail("borrado@iesjuanbosco.es")).thenReturn(Optional.empty());
+
+        Jwt jwt = tokenSinId("borrado@iesjuanbosco.es", usuario);
+
+        assertThatThrownBy(() -> securityConfig.jwtAuthenticationConverter().convert(jwt))
+                .isInstanceOf(InvalidBearerTokenException.class);
+    }
+
+    // Un principal que no es Usuario genera el token sin el claim del id, como los de versiones anteriores
+    private Jwt tokenSinId(String email, Usuario usuario) {
+        Jwt jwt = securityConfig.jwtDecoder().decode(jwtService.generateToken(
+                UsernamePasswordAuthenticationToken.authenticated(email, null, usuario.getAuthorities())));
+        assertThat(jwt.hasClaim(JwtService.CLAIM_ID_USUARIO)).isFalse();
+        return jwt;
+    }
+}
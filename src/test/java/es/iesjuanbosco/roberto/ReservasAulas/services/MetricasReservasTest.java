@@ -0,0 +1,40 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Cada guardado queda medido con el resultado con el que termina, también cuando lanza una excepción
+class MetricasReservasTest {
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+    private final MetricasReservas metricas = new MetricasReservas(registro);
+
+    @Test
+    void elResultadoDelGuardadoSeEtiquetaSegunComoTermina() {
+        metricas.medirGuardado("crear", () -> "ok");
+        assertThatThrownBy(() -> metricas.medirGuardado("crear", () -> {
+            metricas.rechazada(MetricasReservas.SOLAPAMIENTO);
+            throw new ConflictoReservaException("solapada");
+        })).isInstanceOf(ConflictoReservaException.class);
+        assertThatThrownBy(() -> metricas.medirGuardado("actualizar", () -> {
+            metricas.rechazada(MetricasReservas.CAPACIDAD);
+            throw new IllegalArgumentException("demasiados asistentes");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(contar("crear", "ok")).isEqualTo(1);
+        assertThat(contar("crear", "conflicto")).isEqualTo(1);
+        assertThat(contar("actualizar", "invalida")).isEqualTo(1);
+        assertThat(registro.get("reservas.rechazadas").tag("motivo", MetricasReservas.SOLAPAMIENTO).counter().count())
+                .isEqualTo(1);
+        assertThat(registro.get("reservas.rechazadas").tag("motivo", MetricasReservas.CAPACIDAD).counter().count())
+                .isEqualTo(1);
+    }
+
+    private long contar(String operacion, String resultado) {
+        return registro.get("reservas.guardado").tag("operacion", operacion).tag("resultado", resultado).timer().count();
+    }
+}
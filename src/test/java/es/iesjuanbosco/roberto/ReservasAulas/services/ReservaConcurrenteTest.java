@@ -0,0 +1,140 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioAula;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Muchas peticiones a la vez sobre el mismo hueco, cada una en su propia transacción contra la base de datos:
+// solo una reserva llega a guardarse y las demás terminan en conflicto (409)
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ServiceReserva.class, ServiceAula.class, ServiceHorario.class, IndiceOcupacion.class,
+        VersionesColecciones.class, EstadisticasOcupacion.class, MetricasReservas.class,
+        ReservaConcurrenteTest.Registro.class})
+class ReservaConcurrenteTest {
+
+    private static final int PETICIONES = 8;
+
+    @TestConfiguration
+    static class Registro {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ServiceReserva serviceReserva;
+
+    @Autowired
+    private RepositorioReserva repositorioReserva;
+
+    @Autowired
+    private RepositorioAula repositorioAula;
+
+    @Autowired
+    private RepositorioHorario repositorioHorario;
+
+    @Autowired
+    private RepositorioUsuario repositorioUsuario;
+
+    @MockitoBean
+    private DifusionOcupacion difusion;
+
+    // Sin la transacción del test los datos se confirman de verdad: se borran al terminar
+    @AfterEach
+    void limpiar() {
+        repositorioReserva.deleteAllInBatch();
+        repositorioHorario.deleteAllInBatch();
+        repositorioAula.deleteAllInBatch();
+        repositorioUsuario.deleteAllInBatch();
+    }
+
+    @Test
+    void soloUnaPeticionConcurrenteGuardaLaReserva() throws Exception {
+        Aula aula = repositorioAula.save(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        Horario horario = repositorioHorario.save(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Usuario usuario = new Usuario();
+        usuario.setEmail("profesor@iesjuanbosco.es");
+        usuario.setPassword("x");
+        usuario.setRoles("ROLE_PROFESOR");
+        usuario = repositorioUsuario.save(usuario);
+        UsuarioAutenticado autenticado = new UsuarioAutenticado(usuario.getId(), usuario.getEmail(), usuario.getRoles());
+
+        LocalDate lunes = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        ExecutorService hilos = Executors.newFixedThreadPool(PETICIONES);
+        try {
+            for (int i = 0; i < PETICIONES; i++) {
+                ReservaRequest request = new ReservaRequest();
+                request.setAulaId(aula.getId());
+                request.setHorarioId(horario.getId());
+                request.setFecha(lunes);
+                request.setMotivo("Clase " + i);
+                request.setAsistentes(10);
+
+                resultados.add(hilos.submit(() -> {
+                    salida.await();
+                    try {
+                        serviceReserva.guardarConUsuario(request, autenticado);
+                        return true;
+                    } catch (ConflictoReservaException e) {
+                        return false;
+                    }
+                }));
+            }
+            salida.countDown();
+
+            int guardadas = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(30, TimeUnit.SECONDS)) guardadas++;
+            }
+
+            assertThat(guardadas).isEqualTo(1);
+            assertThat(repositorioReserva.count()).isEqualTo(1);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
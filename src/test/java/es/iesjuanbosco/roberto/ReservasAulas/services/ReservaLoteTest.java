@@ -0,0 +1,148 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ResultadoReservaLote;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cada elemento del lote se valida por separado: los rechazados no impiden guardar el resto
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ServiceReserva.class, ServiceAula.class, ServiceHorario.class, IndiceOcupacion.class,
+        VersionesColecciones.class, EstadisticasOcupacion.class, MetricasReservas.class, SimpleMeterRegistry.class})
+class ReservaLoteTest {
+
+    private static final LocalDate LUNES = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @Autowired
+    private ServiceReserva serviceReserva;
+
+    @Autowired
+    private RepositorioReserva repositorioReserva;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DifusionOcupacion difusion;
+
+    private Aula aula;
+    private Aula otraAula;
+    private Horario primeraHora;
+    private Horario primeraHoraYMedia;
+    private UsuarioAutenticado usuario;
+
+    @BeforeEach
+    void crearDatos() {
+        aula = em.persist(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        otraAula = em.persist(Aula.builder().nombre("Aula Magna").capacidad(100).esOrdenadores(false).build());
+        primeraHora = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        primeraHoraYMedia = em.persist(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 30)).horaFin(LocalTime.of(9, 30)).build());
+        Usuario profesor = new Usuario();
+        profesor.setEmail("profesor@iesjuanbosco.es");
+        profesor.setPassword("x");
+        profesor.setRoles("ROLE_PROFESOR");
+        em.persist(profesor);
+        em.flush();
+        em.clear();
+        usuario = new UsuarioAutenticado(profesor.getId(), profesor.getEmail(), profesor.getRoles());
+    }
+
+    @Test
+    void losElementosNoValidosSeRechazanYElRestoSeGuarda() {
+        List<ResultadoReservaLote> resultados = serviceReserva.guardarLote(List.of(
+                request(aula, primeraHora, LUNES, 10),
+                request(aula.getId() + 1000, primeraHora.getId(), LUNES, 10),
+                request(aula, primeraHora, LocalDate.now().minusDays(1), 10),
+                request(aula, primeraHora, LUNES.plusWeeks(1), 31),
+                request(otraAula, primeraHora, LUNES, 80)), usuario);
+
+        assertThat(resultados).extracting(ResultadoReservaLote::getIndice).containsExactly(0, 1, 2, 3, 4);
+        assertThat(resultados).extracting(ResultadoReservaLote::isCreada).containsExactly(true, false, false, false, true);
+        assertThat(resultados.get(1).getError()).isEqualTo("Aula no encontrada con id: " + (aula.getId() + 1000));
+        assertThat(resultados.get(2).getError()).isEqualTo("No se pueden hacer reservas en el pasado");
+        assertThat(resultados.get(3).getError()).isEqualTo("El número de asistentes supera la capacidad del aula.");
+
+        assertThat(resultados.get(0).getReserva().getId()).isNotNull();
+        assertThat(resultados.get(4).getReserva().getAulaNombre()).isEqualTo("Aula Magna");
+        assertThat(repositorioReserva.count()).isEqualTo(2);
+    }
+
+    // Los elementos anteriores del mismo lote cuentan como reservas existentes
+    @Test
+    void unSolapamientoDentroDelLoteRechazaSoloAlSegundo() {
+        List<ResultadoReservaLote> resultados = serviceReserva.guardarLote(List.of(
+                request(aula, primeraHora, LUNES, 10),
+                request(aula, primeraHoraYMedia, LUNES, 10),
+                request(otraAula, primeraHoraYMedia, LUNES, 10),
+                request(aula, primeraHoraYMedia, LUNES.plusWeeks(1), 10)), usuario);
+
+        assertThat(resultados).extracting(ResultadoReservaLote::isCreada).containsExactly(true, false, true, true);
+        assertThat(resultados.get(1).getError())
+                .isEqualTo("La reserva se solapa con otra reserva existente en el mismo aula y horario.");
+        assertThat(repositorioReserva.count()).isEqualTo(3);
+    }
+
+    // Las aulas y los horarios del lote se cargan con una consulta cada uno, no uno por elemento
+    @Test
+    void elCatalogoDelLoteSeCargaConUnaConsultaPorTabla() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        serviceReserva.guardarLote(List.of(
+                request(aula, primeraHora, LUNES, 10),
+                request(otraAula, primeraHora, LUNES, 10),
+                request(aula, primeraHora, LUNES.plusWeeks(1), 10),
+                request(otraAula, primeraHoraYMedia, LUNES.plusWeeks(1), 10)), usuario);
+
+        assertThat(estadisticas.getQueryExecutionCount()).isEqualTo(2);
+        // Dos aulas, dos horarios y el usuario, que se carga una vez para poner su email en la respuesta
+        assertThat(estadisticas.getEntityLoadCount()).isEqualTo(5);
+    }
+
+    private static ReservaRequest request(Aula aula, Horario horario, LocalDate fecha, int asistentes) {
+        return request(aula.getId(), horario.getId(), fecha, asistentes);
+    }
+
+    private static ReservaRequest request(Long aulaId, Long horarioId, LocalDate fecha, int asistentes) {
+        ReservaRequest request = new ReservaRequest();
+        request.setAulaId(aulaId);
+        request.setHorarioId(horarioId);
+        request.setFecha(fecha);
+        request.setMotivo("Clase");
+        request.setAsistentes(asistentes);
+        return request;
+    }
+}
@@ -0,0 +1,178 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaRecurrenteRequest;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.UsuarioAutenticado;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Reserva;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Usuario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.Frecuencia;
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ConflictoReservaException;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioAula;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioHorario;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioUsuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Series de reservas: se guardan todas las fechas o ninguna. Cada llamada confirma o deshace su propia transacción
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ServiceReserva.class, ServiceAula.class, ServiceHorario.class, IndiceOcupacion.class,
+        VersionesColecciones.class, EstadisticasOcupacion.class, MetricasReservas.class, SimpleMeterRegistry.class})
+class ReservaRecurrenteTest {
+
+    private static final LocalDate LUNES = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @Autowired
+    private ServiceReserva serviceReserva;
+
+    @Autowired
+    private IndiceOcupacion indiceOcupacion;
+
+    @Autowired
+    private RepositorioReserva repositorioReserva;
+
+    @Autowired
+    private RepositorioAula repositorioAula;
+
+    @Autowired
+    private RepositorioHorario repositorioHorario;
+
+    @Autowired
+    private RepositorioUsuario repositorioUsuario;
+
+    @MockitoBean
+    private DifusionOcupacion difusion;
+
+    private Aula aula;
+    private Horario horario;
+    private UsuarioAutenticado usuario;
+
+    @BeforeEach
+    void crearDatos() {
+        aula = repositorioAula.save(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build());
+        horario = repositorioHorario.save(Horario.builder().diaSemana(DiaSemana.LUNES)
+                .horaInicio(LocalTime.of(8, 0)).horaFin(LocalTime.of(9, 0)).build());
+        Usuario profesor = new Usuario();
+        profesor.setEmail("profesor@iesjuanbosco.es");
+        profesor.setPassword("x");
+        profesor.setRoles("ROLE_PROFESOR");
+        profesor = repositorioUsuario.save(profesor);
+        usuario = new UsuarioAutenticado(profesor.getId(), profesor.getEmail(), profesor.getRoles());
+    }
+
+    @AfterEach
+    void limpiar() {
+        repositorioReserva.deleteAllInBatch();
+        repositorioHorario.deleteAllInBatch();
+        repositorioAula.deleteAllInBatch();
+        repositorioUsuario.deleteAllInBatch();
+        indiceOcupacion.reconstruir();
+    }
+
+    // La primera fecha es el primer lunes desde el inicio; después, una de cada dos semanas hasta el fin incluido
+    @Test
+    void quincenalEmpiezaEnElDiaDelHorario() {
+        List<Reserva> reservas = serviceReserva.guardarRecurrente(
+                request(Frecuencia.QUINCENAL, LUNES.minusDays(1), LUNES.plusWeeks(6)), usuario);
+
+        assertThat(reservas).extracting(Reserva::getFecha)
+                .containsExactly(LUNES, LUNES.plusWeeks(2), LUNES.plusWeeks(4), LUNES.plusWeeks(6));
+        assertThat(repositorioReserva.count()).isEqualTo(4);
+    }
+
+    @Test
+    void lasExcepcionesSeSaltan() {
+        ReservaRecurrenteRequest request = request(Frecuencia.SEMANAL, LUNES, LUNES.plusWeeks(3));
+        request.setExcepciones(List.of(LUNES.plusWeeks(1), LUNES.plusDays(1)));
+
+        List<Reserva> reservas = serviceReserva.guardarRecurrente(request, usuario);
+
+        assertThat(reservas).extracting(Reserva::getFecha)
+                .containsExactly(LUNES, LUNES.plusWeeks(2), LUNES.plusWeeks(3));
+    }
+
+    @Test
+    void noSePuedenGenerarMasDeSesentaReservas() {
+        assertThatThrownBy(() -> serviceReserva.guardarRecurrente(
+                request(Frecuencia.SEMANAL, LUNES, LUNES.plusWeeks(60)), usuario))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La recurrencia no puede generar más de 60 reservas.");
+        assertThat(repositorioReserva.count()).isZero();
+
+        // Justo en el límite sí se puede
+        assertThat(serviceReserva.guardarRecurrente(
+                request(Frecuencia.SEMANAL, LUNES, LUNES.plusWeeks(59)), usuario)).hasSize(60);
+    }
+
+    // Una fecha ocupada en la base de datos rechaza la serie entera y dice qué fechas chocan
+    @Test
+    void unaFechaOcupadaRechazaTodaLaSerie() {
+        serviceReserva.guardarRecurrente(request(Frecuencia.SEMANAL, LUNES.plusWeeks(2), LUNES.plusWeeks(2)), usuario);
+
+        assertThatThrownBy(() -> serviceReserva.guardarRecurrente(
+                request(Frecuencia.SEMANAL, LUNES, LUNES.plusWeeks(3)), usuario))
+                .isInstanceOf(ConflictoReservaException.class)
+                .hasMessageContaining(LUNES.plusWeeks(2).toString());
+
+        assertThat(repositorioReserva.findAll()).extracting(Reserva::getFecha).containsExactly(LUNES.plusWeeks(2));
+        assertThat(ocupada(LUNES)).isFalse();
+    }
+
+    // Si el choque aparece al ocupar el hueco (otra reserva entró después de la consulta del rango), los huecos ya
+    // ocupados por la serie se liberan con el rollback
+    @Test
+    void unChoqueAlOcuparLiberaLosHuecosDeLaSerie() {
+        Reserva otra = Reserva.builder().id(-1000L).aula(aula).horario(horario).fecha(LUNES.plusWeeks(2)).build();
+        indiceOcupacion.confirmar(indiceOcupacion.ocupar(aula.getId(), otra.getFecha(), horario, null), otra);
+
+        assertThatThrownBy(() -> serviceReserva.guardarRecurrente(
+                request(Frecuencia.SEMANAL, LUNES, LUNES.plusWeeks(3)), usuario))
+                .isInstanceOf(ConflictoReservaException.class);
+
+        assertThat(repositorioReserva.count()).isZero();
+        assertThat(ocupada(LUNES)).isFalse();
+        assertThat(ocupada(LUNES.plusWeeks(1))).isFalse();
+        assertThat(ocupada(LUNES.plusWeeks(3))).isFalse();
+    }
+
+    private boolean ocupada(LocalDate fecha) {
+        return indiceOcupacion.aulasOcupadas(fecha, List.of(horario.getId())).get(Math.toIntExact(aula.getId()));
+    }
+
+    private ReservaRecurrenteRequest request(Frecuencia frecuencia, LocalDate inicio, LocalDate fin) {
+        ReservaRecurrenteRequest request = new ReservaRecurrenteRequest();
+        request.setAulaId(aula.getId());
+        request.setHorarioId(horario.getId());
+        request.setMotivo("Tutoría");
+        request.setAsistentes(10);
+        request.setFrecuencia(frecuencia);
+        request.setFechaInicio(inicio);
+        request.setFechaFin(fin);
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.DiaSemanaAulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.HuecoSemanaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.ReservaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.dtos.SemanaAulaDTO;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Horario;
+import es.iesjuanbosco.roberto.ReservasAulas.enums.DiaSemana;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioAula;
+import es.iesjuanbosco.roberto.ReservasAulas.repositories.RepositorioReserva;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// El cuadrante se monta con las reservas de esa semana y el catálogo de horarios, sin leer el historial del aula
+class SemanaAulaTest {
+
+    private final RepositorioReserva repositoryReserva = mock(RepositorioReserva.class);
+    private final ServiceHorario serviceHorario = mock(ServiceHorario.class);
+    private final ServiceAula serviceAula = new ServiceAula(mock(RepositorioAula.class), repositoryReserva,
+            mock(IndiceOcupacion.class), new VersionesColecciones(),
+            mock(EstadisticasOcupacion.class), serviceHorario);
+
+    private final Aula aula = Aula.builder().id(1L).nombre("Aula 101").capacidad(30).esOrdenadores(false).build();
+
+    // Miércoles 21/10/2026: su semana va del lunes 19 al domingo 25
+    private static final LocalDate MIERCOLES = LocalDate.of(2026, 10, 21);
+    private static final LocalDate LUNES = LocalDate.of(2026, 10, 19);
+
+    @Test
+    void cuadranteDeLaSemanaConLaReservaDeCadaHueco() {
+        when(serviceHorario.obtenerTodas()).thenReturn(List.of(
+                horario(2L, DiaSemana.LUNES, 9),
+                horario(1L, DiaSemana.LUNES, 8),
+                horario(3L, DiaSemana.MIERCOLES, 8)));
+        when(repositoryReserva.findSemanaAula(1L, LUNES, LUNES.plusDays(6))).thenReturn(List.of(
+                new ReservaSemana(10L, LUNES, 2L, "Tutoría", 12, 5L, "profesor@iesjuanbosco.es")));
+
+        SemanaAulaDTO semana = serviceAula.obtenerSemana(aula, MIERCOLES);
+
+        verify(repositoryReserva).findSemanaAula(1L, LUNES, LUNES.plusDays(6));
+        assertThat(semana.getDesde()).isEqualTo(LUNES);
+        assertThat(semana.getHasta()).isEqualTo(LUNES.plusDays(6));
+        assertThat(semana.getDias()).hasSize(7)
+                .extracting(DiaSemanaAulaDTO::getDiaSemana)
+                .startsWith("LUNES", "MARTES", "MIERCOLES");
+
+        // Los huecos del lunes salen por hora de inicio; el de las 9:00 está reservado
+        List<HuecoSemanaDTO> lunes = semana.getDias().get(0).getHuecos();
+        assertThat(lunes).extracting(HuecoSemanaDTO::getHorarioId).containsExactly(1L, 2L);
+        assertThat(lunes.get(0).getReservaId()).isNull();
+        assertThat(lunes.get(1).getReservaId()).isEqualTo(10L);
+        assertThat(lunes.get(1).getUsuarioEmail()).isEqualTo("profesor@iesjuanbosco.es");
+
+        assertThat(semana.getDias().get(1).getHuecos()).isEmpty();
+        assertThat(semana.getDias().get(2).getFecha()).isEqualTo(MIERCOLES);
+        assertThat(semana.getDias().get(2).getHuecos()).singleElement()
+                .extracting(HuecoSemanaDTO::getHorarioId, HuecoSemanaDTO::getReservaId)
+                .containsExactly(3L, null);
+    }
+
+    private static Horario horario(Long id, DiaSemana dia, int hora) {
+        return Horario.builder().id(id).diaSemana(dia)
+                .horaInicio(LocalTime.of(hora, 0)).horaFin(LocalTime.of(hora + 1, 0)).build();
+    }
+}
@@ -0,0 +1,93 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.config.CacheConfig;
+import es.iesjuanbosco.roberto.ReservasAulas.entities.Aula;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// En estado estable las lecturas del catálogo no llegan a la base de datos; las escrituras invalidan la caché
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, ServiceAula.class, VersionesColecciones.class})
+class ServiceAulaCacheTest {
+
+    @Autowired
+    private ServiceAula serviceAula;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private IndiceOcupacion indiceOcupacion;
+
+    @MockitoBean
+    private EstadisticasOcupacion estadisticasOcupacion;
+
+    @MockitoBean
+    private ServiceHorario serviceHorario;
+
+    private Statistics estadisticas;
+    private Long aulaId;
+
+    @BeforeEach
+    void preparar() {
+        cacheManager.getCacheNames().forEach(nombre -> cacheManager.getCache(nombre).clear());
+        aulaId = serviceAula.guardar(Aula.builder().nombre("Aula 101").capacidad(30).esOrdenadores(false).build())
+                .getId();
+        em.flush();
+        em.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void lasLecturasRepetidasNoConsultanLaBaseDeDatos() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(serviceAula.obtenerPorId(aulaId)).isPresent();
+            assertThat(serviceAula.obtenerTodas()).hasSize(1);
+        }
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void actualizarInvalidaLaCache() {
+        assertThat(serviceAula.obtenerTodas()).extracting(Aula::getNombre).containsExactly("Aula 101");
+        assertThat(serviceAula.obtenerPorId(aulaId)).get().extracting(Aula::getCapacidad).isEqualTo(30);
+
+        serviceAula.actualizar(Aula.builder().nombre("Aula 201").build(), aulaId);
+
+        assertThat(serviceAula.obtenerTodas()).extracting(Aula::getNombre).containsExactly("Aula 201");
+        assertThat(serviceAula.obtenerPorId(aulaId)).get().extracting(Aula::getCapacidad).isEqualTo(30);
+    }
+
+    @Test
+    void lasAulasInexistentesNoSeGuardanEnCache() {
+        assertThat(serviceAula.obtenerPorId(9999L)).isEmpty();
+        assertThat(serviceAula.obtenerPorId(9999L)).isEmpty();
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,86 @@
+package es.iesjuanbosco.roberto.ReservasAulas.services;
+
+import es.iesjuanbosco.roberto.ReservasAulas.exceptions.ServicioSaturadoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Con el ejecutor y la cola llenos las peticiones se rechazan al momento en lugar de acumularse
+class ServiceContrasenasTest {
+
+    private final ExecutorService despues = Executors.newSingleThreadExecutor(tarea -> new Thread(tarea, "despues"));
+    private final ServiceContrasenas serviceContrasenas = new ServiceContrasenas(1, 1, despues);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    void cerrar() {
+        liberar.countDown();
+        serviceContrasenas.cerrar();
+        despues.shutdownNow();
+    }
+
+    @Test
+    void rechazaCuandoLaColaEstaLlena() throws Exception {
+        CountDownLatch empezada = new CountDownLatch(1);
+        CompletableFuture<String> enCurso = serviceContrasenas.ejecutar(() -> {
+            empezada.countDown();
+            esperar();
+            return "hash";
+        });
+        assertThat(empezada.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> enCola = serviceContrasenas.ejecutar(() -> "hash");
+
+        assertThat(serviceContrasenas.tareasEnCurso()).isEqualTo(1);
+        assertThat(serviceContrasenas.tareasEnCola()).isEqualTo(1);
+        assertThatThrownBy(() -> serviceContrasenas.ejecutar(() -> "hash"))
+                .isInstanceOf(ServicioSaturadoException.class);
+
+        liberar.countDown();
+        assertThat(enCurso.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(enCola.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    void elTrabajoSeEjecutaFueraDelHiloQueLlama() throws Exception {
+        String hilo = serviceContrasenas.ejecutar(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertThat(hilo).startsWith("bcrypt-");
+    }
+
+    // Lo que sigue al hash (guardar en la base de datos) no ocupa el ejecutor de contraseñas: con su único hilo
+    // bloqueado por otra tarea, el hash siguiente no podría ni empezar si el guardado anterior se quedara en él
+    @Test
+    void loQueSigueAlHashSeEjecutaFueraDelEjecutorDeContrasenas() throws Exception {
+        CountDownLatch guardando = new CountDownLatch(1);
+        CompletableFuture<String> conGuardado = serviceContrasenas.ejecutarYDespues(
+                () -> Thread.currentThread().getName(),
+                hiloHash -> {
+                    guardando.countDown();
+                    esperar();
+                    return hiloHash + " -> " + Thread.currentThread().getName();
+                });
+        assertThat(guardando.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Mientras el guardado sigue esperando, el ejecutor de contraseñas está libre
+        assertThat(serviceContrasenas.ejecutar(() -> "hash").get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+
+        liberar.countDown();
+        assertThat(conGuardado.get(5, TimeUnit.SECONDS)).matches("bcrypt-\\d+ -> despues");
+    }
+
+    private void esperar() {
+        try {
+            liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}